@@ -1,4 +1,5 @@
 import axios from 'axios';
+import { getStoredToken } from './auth';
 
 // Force localhost for development
 const API_BASE_URL = 'http://localhost:8083/api/chats';
@@ -6,6 +7,15 @@ const API_BASE_URL = 'http://localhost:8083/api/chats';
 // Configure axios to handle errors globally
 axios.defaults.headers.common['Content-Type'] = 'application/json';
 
+// Conversations belong to the signed-in user; the server refuses requests without a token
+axios.interceptors.request.use((config) => {
+  const token = getStoredToken();
+  if (token) {
+    config.headers.Authorization = `Bearer ${token}`;
+  }
+  return config;
+});
+
 // Log the API URL for debugging
 console.log('API Base URL:', API_BASE_URL);
 
@@ -44,6 +54,30 @@ export const getAllConversations = async () => {
   }
 };
 
+// Per-category counts and averages computed on the server
+export const getConversationStats = async () => {
+  try {
+    const response = await axios.get(`${API_BASE_URL}/stats`);
+    return response.data;
+  } catch (error) {
+    handleError(error);
+  }
+};
+
+// Live change feed; the browser reconnects (with Last-Event-ID) on its own.
+// onEvent receives { type, ids, conversations }; onReset means refetch everything.
+// EventSource can't send headers, so the token goes in the query string.
+export const subscribeToConversationEvents = (onEvent, onReset) => {
+  const token = getStoredToken();
+  const query = token ? `?access_token=${encodeURIComponent(token)}` : '';
+  const source = new EventSource(`${API_BASE_URL}/events${query}`);
+  ['created', 'updated', 'deleted'].forEach((name) =>
+    source.addEventListener(name, (e) => onEvent(JSON.parse(e.data)))
+  );
+  source.addEventListener('reset', () => onReset && onReset());
+  return () => source.close();
+};
+
 export const getConversationsByCategory = async (category) => {
   try {
     const response = await axios.get(`${API_BASE_URL}/byCategory?category=${category}`);
@@ -0,0 +1,137 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.configuration.CachingJwtDecoder;
+import com.examly.springapp.configuration.JWTUtil;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue (JWTUtil.generateToken, as on login) and verification: JJWT parsing as in
+ * JWTUtil, and the resource server's Nimbus decoder with and without CachingJwtDecoder,
+ * built the same way as SecurityConfig.jwtDecoder().
+ *
+ * Requests rotate through one pre-issued token per active user, from several threads,
+ * and are reported both as throughput (ops/us; multiply by 10^6 for requests per second)
+ * and as average time. decodeCached runs with the application's cache size, so once warm
+ * every active user is a hit; decodeCachedMisses uses a cache a tenth of the user count,
+ * so nearly every request pays a first-request miss: the Nimbus verification plus the
+ * cache insert and eviction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "ThisIsADevOnlySecretChangeMeToAtLeast32Chars";
+    // app.jwt.decoder-cache.max-size and max-ttl defaults
+    private static final long CACHE_SIZE = 10_000;
+    private static final Duration CACHE_TTL = Duration.ofMinutes(5);
+
+    @Param({ "1000", "5000" })
+    public int users;
+
+    private JWTUtil jwtUtil;
+    private JwtDecoder nimbusDecoder;
+    private JwtDecoder cachingDecoder;
+    private JwtDecoder missingDecoder;
+    private String[] tokens;
+
+    @Setup
+    public void setUp() {
+        // Timers included, as in the application
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        jwtUtil = new JWTUtil(SECRET, 3_600_000, "SpringBootEmp", meterRegistry);
+        nimbusDecoder = NimbusJwtDecoder
+                .withSecretKey(secretKey())
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        cachingDecoder = new CachingJwtDecoder(nimbusDecoder, CACHE_SIZE, CACHE_TTL, meterRegistry);
+        missingDecoder = new CachingJwtDecoder(nimbusDecoder, Math.max(1, users / 10), CACHE_TTL, meterRegistry);
+        tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = jwtUtil.generateToken("bench-user-" + i, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        }
+    }
+
+    /** Each thread walks the tokens from its own starting point, as independent clients would. */
+    @State(Scope.Thread)
+    public static class Rotation {
+
+        private int next;
+
+        @Setup
+        public void start(JwtBenchmark benchmark) {
+            next = ThreadLocalRandom.current().nextInt(benchmark.users);
+        }
+
+        String token(String[] tokens) {
+            String token = tokens[next];
+            next = next + 1 == tokens.length ? 0 : next + 1;
+            return token;
+        }
+    }
+
+    // As in SecurityConfig: Base64 if the secret decodes, raw bytes otherwise
+    private static SecretKey secretKey() {
+        try {
+            return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        } catch (IllegalArgumentException e) {
+            return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    public String issue() {
+        return jwtUtil.generateToken("bench-user", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Benchmark
+    public String parse(Rotation rotation) {
+        return jwtUtil.extractUsername(rotation.token(tokens));
+    }
+
+    @Benchmark
+    public Jwt decodeUncached(Rotation rotation) {
+        return nimbusDecoder.decode(rotation.token(tokens));
+    }
+
+    @Benchmark
+    public Jwt decodeCached(Rotation rotation) {
+        return cachingDecoder.decode(rotation.token(tokens));
+    }
+
+    @Benchmark
+    public Jwt decodeCachedMisses(Rotation rotation) {
+        return missingDecoder.decode(rotation.token(tokens));
+    }
+}
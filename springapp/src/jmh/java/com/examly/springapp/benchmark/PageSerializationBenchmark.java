@@ -0,0 +1,79 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.model.Conversation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a Page&lt;Conversation&gt; as returned by the paged listing
+ * endpoints, at page sizes 5, 50 and 500, with and without the Blackbird module that
+ * JacksonConfiguration registers (app.json.blackbird.enabled).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+    @Param({ "5", "50", "500" })
+    public int rows;
+
+    @Param({ "true", "false" })
+    public boolean blackbird;
+
+    private ObjectMapper objectMapper;
+    private Page<Conversation> page;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as Boot's auto-configured mapper (JavaTimeModule, ISO-8601 dates)
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+
+        List<Conversation> content = new ArrayList<>(rows);
+        Instant now = Instant.parse("2024-06-01T12:00:00Z");
+        String response = "Sure, here is how you would do that. ".repeat(20);
+        for (int i = 0; i < rows; i++) {
+            Conversation conversation = new Conversation();
+            conversation.setId((long) i + 1);
+            conversation.setPrompt("How do I paginate a Spring Data repository? #" + i);
+            conversation.setResponse(response);
+            conversation.setCategory(i % 2 == 0 ? "Coding" : "General");
+            conversation.setTimestamp(now.minusSeconds(i));
+            conversation.setVersion(0L);
+            content.add(conversation);
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, rows), 10_000);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,180 @@
+package com.examly.springapp.benchmark;
+
+import com.examly.springapp.SpringappApplication;
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.payload.BulkIngestResponse;
+import com.examly.springapp.repository.ConversationBatchWriter;
+import com.examly.springapp.repository.ConversationRepository;
+import com.examly.springapp.service.ConversationBulkIngestService;
+import com.examly.springapp.service.ConversationService;
+import com.examly.springapp.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversation reads and writes through the real repositories and services, with the
+ * application started on the benchmark profile (in-memory H2 in MySQL mode, see
+ * application-benchmark.properties) and seeded with seedRows conversations, one million
+ * by default so offset scans and the count query cost what they do on a real table.
+ * Seeding runs once per trial; pass -p seedRows=10000 for a quick run.
+ *
+ * Compares keyset slices with offset pages at increasing depth, down to the end of the
+ * table (the offset page also pays for its count query), a single-row read with its
+ * body, and single inserts (POST /addConversation) with bulk ingest (POST /bulk), both
+ * per row. Absolute numbers are H2's; the relative costs are what carry over to MySQL,
+ * except for paging: H2 can't read an ascending index backwards, so it sorts the owner's
+ * rows for every newest-first slice and page. For the keyset vs offset comparison, run
+ * against MySQL by appending -Dspring.datasource.url=jdbc:mysql://...,
+ * -Dspring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver and
+ * -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect (plus
+ * credentials) to the forked JVM with -jvmArgsAppend.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryBenchmark {
+
+    static final int SEED_BATCH = 1000;
+    static final int PAGE_SIZE = 20;
+    static final int BULK_ROWS = 100;
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        @Param({ "1000000" })
+        public int seedRows;
+
+        ConfigurableApplicationContext context;
+        ConversationRepository repository;
+        ConversationService service;
+        ConversationBulkIngestService bulkIngestService;
+        Long ownerId;
+        long someId;
+
+        @Setup
+        public void start() {
+            context = new SpringApplicationBuilder(SpringappApplication.class)
+                    .profiles("benchmark")
+                    .run();
+            repository = context.getBean(ConversationRepository.class);
+            service = context.getBean(ConversationService.class);
+            bulkIngestService = context.getBean(ConversationBulkIngestService.class);
+
+            // Every listing is scoped to its owner, so seed and read as one; a fresh one per
+            // trial, as a MySQL database outlives the run
+            String suffix = Long.toString(System.currentTimeMillis(), 36);
+            ownerId = context.getBean(UserService.class)
+                    .createUser("benchmark-" + suffix, "!", "benchmark-" + suffix + "@example.com", "ROLE_USER")
+                    .getId();
+
+            ConversationBatchWriter batchWriter = context.getBean(ConversationBatchWriter.class);
+            Instant newest = Instant.parse("2024-06-01T12:00:00Z");
+            for (int from = 0; from < seedRows; from += SEED_BATCH) {
+                List<Conversation> batch = new ArrayList<>(SEED_BATCH);
+                for (int i = from; i < Math.min(from + SEED_BATCH, seedRows); i++) {
+                    Conversation conversation = conversation(i, newest.minusSeconds(i));
+                    conversation.setOwnerId(ownerId);
+                    // Listings don't load bodies; short ones keep a million rows within the heap
+                    conversation.setResponse("Seeded answer #" + i);
+                    batch.add(conversation);
+                }
+                batchWriter.insertAll(batch);
+            }
+            someId = repository.findMaxId().orElseThrow() - seedRows / 2;
+        }
+
+        @TearDown
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Position {
+
+        @Param({ "0", "9980", "99980", "499980", "999980" })
+        public int depth;
+
+        Conversation cursor;
+
+        @Setup
+        public void locate(Application app) {
+            // Depths past a smaller -p seedRows read the last page instead
+            depth = Math.min(depth, app.seedRows - PAGE_SIZE);
+            if (depth > 0) {
+                // The last row of the page before this depth, as a client's cursor would point at
+                cursor = app.repository.findByOwnerIdOrderByTimestampDesc(app.ownerId, PageRequest.of(depth - 1, 1))
+                        .getContent().get(0);
+            }
+        }
+    }
+
+    @Benchmark
+    public Slice<Conversation> keysetSlice(Application app, Position position) {
+        PageRequest limit = PageRequest.of(0, PAGE_SIZE);
+        Conversation cursor = position.cursor;
+        return cursor == null
+                ? app.repository.findFirstSlice(app.ownerId, limit)
+                : app.repository.findSliceBefore(app.ownerId, cursor.getTimestamp(), cursor.getId(), limit);
+    }
+
+    @Benchmark
+    public Page<Conversation> offsetPage(Application app, Position position) {
+        return app.repository.findByOwnerIdOrderByTimestampDesc(app.ownerId,
+                PageRequest.of(position.depth / PAGE_SIZE, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Optional<Conversation> findById(Application app) {
+        return app.service.getConversation(app.ownerId, app.someId);
+    }
+
+    @Benchmark
+    public Conversation insertSingle(Application app) {
+        return app.service.addConversation(app.ownerId, conversation(0, Instant.now()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_ROWS)
+    public BulkIngestResponse insertBulk(Application app) {
+        List<Conversation> rows = new ArrayList<>(BULK_ROWS);
+        Instant now = Instant.now();
+        for (int i = 0; i < BULK_ROWS; i++) {
+            rows.add(conversation(i, now));
+        }
+        return app.bulkIngestService.ingest(app.ownerId, rows.iterator());
+    }
+
+    static Conversation conversation(int i, Instant timestamp) {
+        Conversation conversation = new Conversation();
+        conversation.setPrompt("How do I paginate a Spring Data repository? #" + i);
+        conversation.setResponse("Sure, here is how you would do that. ".repeat(20));
+        conversation.setCategory(i % 4 == 0 ? "Coding" : "General");
+        conversation.setTimestamp(timestamp);
+        return conversation;
+    }
+}
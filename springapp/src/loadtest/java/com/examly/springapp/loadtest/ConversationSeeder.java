@@ -0,0 +1,88 @@
+package com.examly.springapp.loadtest;
+
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.model.User;
+import com.examly.springapp.repository.ConversationBatchWriter;
+import com.examly.springapp.service.ConversationStatistics;
+import com.examly.springapp.service.UserService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tops one user's conversations up to a target row count through ConversationBatchWriter,
+ * one transaction per batch. The load-test database is a file, so later runs only insert
+ * what is missing. Rows are spread over the past year across the four UI categories with
+ * fixed-seed content, so every run sees the same data.
+ */
+class ConversationSeeder {
+
+    static final List<String> CATEGORIES = List.of("Coding", "Education", "Career", "General");
+
+    private static final int BATCH_SIZE = 1000;
+    private static final Duration SPREAD = Duration.ofDays(365);
+
+    private final ConversationBatchWriter batchWriter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationStatistics statistics;
+    private final UserService userService;
+
+    ConversationSeeder(ApplicationContext context) {
+        this.batchWriter = context.getBean(ConversationBatchWriter.class);
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+        this.transactionTemplate = context.getBean(TransactionTemplate.class);
+        this.statistics = context.getBean(ConversationStatistics.class);
+        this.userService = context.getBean(UserService.class);
+    }
+
+    /** Insert rows owned by the user until it has at least target; returns the number inserted. */
+    long seed(String username, long target) {
+        Long ownerId = userService.findByUsername(username).map(User::getId)
+                .orElseThrow(() -> new IllegalStateException("No user " + username + " to seed conversations for"));
+        Long existing = jdbcTemplate.queryForObject("select count(*) from conversation where owner_id = ?",
+                Long.class, ownerId);
+        long missing = target - (existing == null ? 0 : existing);
+        if (missing <= 0) {
+            return 0;
+        }
+        Random random = new Random(target);
+        Instant newest = Instant.now();
+        long started = System.nanoTime();
+        long inserted = 0;
+        while (inserted < missing) {
+            int size = (int) Math.min(BATCH_SIZE, missing - inserted);
+            List<Conversation> batch = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Conversation conversation = conversation(random, newest);
+                conversation.setOwnerId(ownerId);
+                batch.add(conversation);
+            }
+            transactionTemplate.executeWithoutResult(status -> batchWriter.insertAll(batch));
+            inserted += size;
+            if (inserted % 100_000 < size) {
+                System.out.printf("Seeded %,d of %,d conversations%n", inserted, missing);
+            }
+        }
+        statistics.invalidateAll(); // the batch writer publishes no change events
+        System.out.printf("Seeded %,d conversations in %,d ms%n", inserted, (System.nanoTime() - started) / 1_000_000);
+        return inserted;
+    }
+
+    static Conversation conversation(Random random, Instant newest) {
+        Conversation conversation = new Conversation();
+        int topic = random.nextInt(10_000);
+        conversation.setPrompt("How do I approach problem " + topic + " step by step?");
+        conversation.setResponse(("Start by restating problem " + topic + " in your own words, then break it"
+                + " into smaller parts and check each one. ").repeat(1 + random.nextInt(8)));
+        conversation.setCategory(CATEGORIES.get(random.nextInt(CATEGORIES.size())));
+        conversation.setTimestamp(newest.minusMillis((long) (random.nextDouble() * SPREAD.toMillis())));
+        return conversation;
+    }
+}
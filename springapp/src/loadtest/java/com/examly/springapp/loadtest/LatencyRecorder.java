@@ -0,0 +1,51 @@
+package com.examly.springapp.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every response time of one endpoint, kept exactly so percentiles are exact; a few
+ * minutes at a few thousand requests per second is a few megabytes.
+ */
+class LatencyRecorder {
+
+    private long[] nanos = new long[1024];
+    private int count;
+    private final AtomicLong errors = new AtomicLong();
+
+    synchronized void record(long elapsedNanos) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = elapsedNanos;
+    }
+
+    void error() {
+        errors.incrementAndGet();
+    }
+
+    synchronized void reset() {
+        count = 0;
+        errors.set(0);
+    }
+
+    /** Sorted copy of the recorded response times. */
+    synchronized long[] sorted() {
+        long[] copy = Arrays.copyOf(nanos, count);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    /** Nearest-rank percentile in milliseconds, 0 when nothing was recorded. */
+    static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000d;
+    }
+}
@@ -0,0 +1,278 @@
+package com.examly.springapp.loadtest;
+
+import com.examly.springapp.SpringappApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-model load test: concurrency clients each send one request at a time, picking
+ * the endpoint by weight, for a warm-up period and then a measured one. Reports
+ * throughput and p50/p95/p99 per endpoint on stdout and as JSON.
+ *
+ * Without loadtest.target the application is started in this JVM on the loadtest profile
+ * (a file-backed H2 database in MySQL mode, see application-loadtest.properties) and the
+ * load-test user is seeded to loadtest.seed conversations first. Run with mvn -Ploadtest verify; every
+ * setting is a system property, see the loadtest profile in pom.xml. Running it twice
+ * with -Dloadtest.virtual-threads=true and false compares Tomcat on virtual and
+ * platform threads.
+ */
+public final class LoadTest {
+
+    enum Endpoint {
+        LOGIN(2), LIST(30), CATEGORY(25), SORTED(20), ADD(15), DELETE(8);
+
+        final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "loadtest-password";
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGES = 10;
+
+    private final URI base;
+    private final int concurrency;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+    // Ids added during the run; deletes only remove these, so the seeded data set stays fixed
+    private final ConcurrentLinkedQueue<Long> added = new ConcurrentLinkedQueue<>();
+    private final int totalWeight;
+    private volatile String token;
+
+    LoadTest(URI base, int concurrency) {
+        this.base = base;
+        this.concurrency = concurrency;
+        int weights = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new LatencyRecorder());
+            weights += endpoint.weight;
+        }
+        this.totalWeight = weights;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String target = System.getProperty("loadtest.target", "");
+        long seed = Long.getLong("loadtest.seed", 1_000_000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT30S"));
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT2M"));
+        File result = new File(System.getProperty("loadtest.result", "target/loadtest-result.json"));
+
+        ConfigurableApplicationContext app = null;
+        if (target.isBlank()) {
+            app = new SpringApplicationBuilder(SpringappApplication.class).profiles("loadtest").run();
+            target = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            LoadTest test = new LoadTest(URI.create(target), concurrency);
+            test.signUp();
+            if (app != null) {
+                // Conversations are per user, so seed the ones the load-test user will read
+                new ConversationSeeder(app).seed(USERNAME, seed);
+            }
+            System.out.printf("Warming up for %s with %d clients against %s%n", warmup, concurrency, target);
+            test.run(warmup);
+            test.reset();
+            System.out.printf("Measuring for %s%n", duration);
+            test.run(duration);
+
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("target", target);
+            config.put("seed", app == null ? null : seed);
+            config.put("concurrency", concurrency);
+            config.put("warmup", warmup.toString());
+            config.put("duration", duration.toString());
+            config.put("virtualThreads", app == null
+                    ? null
+                    : app.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false));
+            config.put("finishedAt", Instant.now().toString());
+            test.report(config, duration, result);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    /** Create the load-test user if needed and log in once for a token. */
+    void signUp() throws IOException, InterruptedException {
+        client.send(post("/api/auth/signup", Map.of("username", USERNAME, "password", PASSWORD,
+                "email", USERNAME + "@example.com")), HttpResponse.BodyHandlers.discarding());
+        HttpResponse<String> login = client.send(post("/api/auth/login", credentials()),
+                HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: " + login.statusCode() + " " + login.body());
+        }
+        token = objectMapper.readTree(login.body()).path("token").asText();
+    }
+
+    void run(Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        call(pick());
+                    }
+                });
+            }
+        }
+    }
+
+    void reset() {
+        recorders.values().forEach(LatencyRecorder::reset);
+    }
+
+    private Endpoint pick() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : Endpoint.values()) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void call(Endpoint endpoint) {
+        Long deleteId = null;
+        if (endpoint == Endpoint.DELETE) {
+            deleteId = added.poll();
+            if (deleteId == null) {
+                endpoint = Endpoint.ADD; // nothing of ours left to delete yet
+            }
+        }
+        Random random = ThreadLocalRandom.current();
+        String category = ConversationSeeder.CATEGORIES.get(random.nextInt(ConversationSeeder.CATEGORIES.size()));
+        int page = random.nextInt(PAGES);
+        HttpRequest request = switch (endpoint) {
+            case LOGIN -> post("/api/auth/login", credentials());
+            case LIST -> get("/api/chats/conversations?page=" + page + "&size=" + PAGE_SIZE);
+            case CATEGORY -> get("/api/chats/conversationsByCategory?category=" + category
+                    + "&page=" + page + "&size=" + PAGE_SIZE);
+            case SORTED -> get("/api/chats/conversationsSortedByTime?page=" + page + "&size=" + PAGE_SIZE);
+            case ADD -> post("/api/chats/addConversation", Map.of(
+                    "prompt", "Load test prompt " + random.nextInt(10_000),
+                    "response", "Load test response. ".repeat(1 + random.nextInt(8)),
+                    "category", category));
+            case DELETE -> authorized(HttpRequest.newBuilder(base.resolve("/api/chats/deleteConversation/" + deleteId)))
+                    .DELETE()
+                    .build();
+        };
+        LatencyRecorder recorder = recorders.get(endpoint);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long elapsed = System.nanoTime() - start;
+            if (response.statusCode() / 100 != 2) {
+                recorder.error();
+                return;
+            }
+            recorder.record(elapsed);
+            if (endpoint == Endpoint.ADD) {
+                added.add(objectMapper.readTree(response.body()).path("id").asLong());
+            } else if (endpoint == Endpoint.LOGIN) {
+                JsonNode body = objectMapper.readTree(response.body());
+                token = body.path("token").asText(token);
+            }
+        } catch (IOException e) {
+            recorder.error();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void report(Map<String, Object> config, Duration duration, File result) throws IOException {
+        double seconds = duration.toNanos() / 1e9;
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        long totalRequests = 0;
+        long totalErrors = 0;
+        System.out.printf("%n%-10s %10s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Endpoint endpoint : Endpoint.values()) {
+            LatencyRecorder recorder = recorders.get(endpoint);
+            long[] sorted = recorder.sorted();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint.name().toLowerCase());
+            row.put("requests", sorted.length);
+            row.put("errors", recorder.errors());
+            row.put("throughput", sorted.length / seconds);
+            row.put("p50Ms", LatencyRecorder.percentile(sorted, 0.50));
+            row.put("p95Ms", LatencyRecorder.percentile(sorted, 0.95));
+            row.put("p99Ms", LatencyRecorder.percentile(sorted, 0.99));
+            row.put("maxMs", LatencyRecorder.percentile(sorted, 1.0));
+            endpoints.add(row);
+            totalRequests += sorted.length;
+            totalErrors += recorder.errors();
+            System.out.printf("%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", row.get("endpoint"),
+                    sorted.length, recorder.errors(), sorted.length / seconds, row.get("p50Ms"), row.get("p95Ms"),
+                    row.get("p99Ms"), row.get("maxMs"));
+        }
+        System.out.printf("%-10s %10d %8d %10.1f%n", "total", totalRequests, totalErrors, totalRequests / seconds);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("throughput", totalRequests / seconds);
+        report.put("errors", totalErrors);
+        report.put("endpoints", endpoints);
+        File parent = result.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(result, report);
+        System.out.println("Results written to " + result.getAbsolutePath());
+    }
+
+    private Map<String, String> credentials() {
+        return Map.of("username", USERNAME, "password", PASSWORD);
+    }
+
+    private HttpRequest get(String path) {
+        return authorized(HttpRequest.newBuilder(base.resolve(path))).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return authorized(HttpRequest.newBuilder(base.resolve(path)))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder authorized(HttpRequest.Builder builder) {
+        builder.timeout(Duration.ofSeconds(30));
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+}
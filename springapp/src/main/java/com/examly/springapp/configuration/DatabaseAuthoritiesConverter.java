@@ -0,0 +1,38 @@
+package com.examly.springapp.configuration;
+
+import com.examly.springapp.model.User;
+import com.examly.springapp.service.UserService;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Resolves a token's authorities from the user's current row instead of its "roles"
+ * claim, so role changes and disabled accounts take effect before the token expires.
+ * Lookups go through UserService's principal cache, so staleness is bounded by that
+ * cache's TTL on nodes other than the one that made the change.
+ */
+public class DatabaseAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    private final UserService userService;
+
+    public DatabaseAuthoritiesConverter(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        User user = userService.findByUsername(jwt.getSubject())
+                .orElseThrow(() -> new BadCredentialsException("Unknown user"));
+        if (!user.isEnabled()) {
+            throw new DisabledException("Account is disabled");
+        }
+        return List.of(new SimpleGrantedAuthority(user.getRole()));
+    }
+}
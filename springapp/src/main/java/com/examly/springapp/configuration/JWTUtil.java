@@ -3,6 +3,8 @@ package com.examly.springapp.configuration;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.Nullable;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -25,22 +27,30 @@ import java.util.stream.Collectors;
  *   app.jwt.secret=<at least 32 chars or base64-encoded 256-bit key>
  *   app.jwt.expiration=3600000
  *   app.jwt.issuer=SpringBootEmp
+ *
+ * Token issue is timed as auth.jwt.issue; verification in the resource server is timed
+ * by CachingJwtDecoder.
  */
 @Component
 public class JWTUtil {
 
     private final SecretKey secretKey;
+    private final JwtParser parser; // immutable and thread-safe, so built once
     private final long expirationMs;
     private final String issuer;
+    private final Timer issueTimer;
 
     public JWTUtil(
             @Value("${app.jwt.secret:ThisIsADevOnlySecretChangeMeToAtLeast32Chars}") String secret,
             @Value("${app.jwt.expiration:3600000}") long expirationMs,
-            @Value("${app.jwt.issuer:SpringBootEmp}") String issuer
+            @Value("${app.jwt.issuer:SpringBootEmp}") String issuer,
+            MeterRegistry meterRegistry
     ) {
         this.secretKey = buildKey(secret);
+        this.parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
         this.expirationMs = expirationMs;
         this.issuer = issuer;
+        this.issueTimer = Timer.builder("auth.jwt.issue").register(meterRegistry);
     }
 
     private SecretKey buildKey(String secret) {
@@ -55,6 +65,10 @@ public class JWTUtil {
 
     /** Generate a JWT for the given principal and authorities. */
     public String generateToken(String username, @Nullable Collection<? extends GrantedAuthority> authorities) {
+        return issueTimer.record(() -> sign(username, authorities));
+    }
+
+    private String sign(String username, @Nullable Collection<? extends GrantedAuthority> authorities) {
         List<String> roles = authorities == null
                 ? List.of()
                 : authorities.stream()
@@ -89,7 +103,9 @@ public class JWTUtil {
 
     public boolean isTokenValid(String token, UserDetails user) {
         try {
-            return user.getUsername().equals(extractUsername(token)) && !isExpired(token);
+            // Verify and parse once, then check both subject and expiry on the same claims
+            Claims claims = parse(token).getBody();
+            return user.getUsername().equals(claims.getSubject()) && claims.getExpiration().after(new Date());
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -101,9 +117,6 @@ public class JWTUtil {
     }
 
     private Jws<Claims> parse(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token);
+        return parser.parseClaimsJws(token);
     }
 }
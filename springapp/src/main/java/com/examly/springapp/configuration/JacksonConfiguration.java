@@ -0,0 +1,22 @@
+package com.examly.springapp.configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers Jackson's Blackbird module with Boot's ObjectMapper. It replaces reflective
+ * getter/setter calls with generated lambdas, which speeds up (de)serialization of
+ * large conversation lists; set app.json.blackbird.enabled=false to compare without it.
+ */
+@Configuration
+public class JacksonConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.json.blackbird.enabled", havingValue = "true", matchIfMissing = true)
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,27 @@
+package com.examly.springapp.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Metrics that Boot doesn't record on its own. HTTP, Spring Data repository, Hikari and
+ * JVM metrics (including the allocation counter jvm.gc.memory.allocated) are
+ * auto-configured; their histograms are switched on in application.properties and
+ * everything is scraped from /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    // Static: post-processors are created before regular beans, the registry is looked up lazily
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.db.slow-query-threshold-ms:500}") long slowQueryThresholdMs) {
+        return new RepositoryMetricsPostProcessor(meterRegistry, Duration.ofMillis(slowQueryThresholdMs));
+    }
+}
@@ -0,0 +1,176 @@
+package com.examly.springapp.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Per-caller token buckets for /api/**, placed after bearer-token authentication in
+ * SecurityConfig's chain. Authenticated callers are keyed by JWT subject and get the most
+ * generous limit among their roles (or the default limit); everyone else, including
+ * login and signup, is keyed by remote address. A caller over its limit gets 429 with
+ * Retry-After in seconds. Behind a proxy, set server.forward-headers-strategy so the
+ * remote address is the client's.
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be full again
+ * (GCRA), so taking a token is one compare-and-set with no locking. Buckets live in a
+ * bounded Caffeine cache and are dropped after one period idle, when they would be full
+ * anyway; a bucket evicted early for space only resets to full. Limits are per node.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /** capacity requests per period, with bursts up to capacity. */
+    public record Limit(long capacity, Duration period) {
+        public Limit {
+            if (capacity <= 0 || period == null || period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("Rate limit needs a positive capacity and period");
+            }
+        }
+
+        long intervalNanos() {
+            return Math.max(1, period.toNanos() / capacity);
+        }
+
+        boolean isMoreGenerousThan(Limit other) {
+            return intervalNanos() != other.intervalNanos()
+                    ? intervalNanos() < other.intervalNanos()
+                    : capacity > other.capacity;
+        }
+    }
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Map<String, Limit> roleLimits;
+    private final Limit defaultLimit;
+    private final Limit anonymousLimit;
+    private final Cache<String, Bucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param roleLimits keyed by role name without the ROLE_ prefix, case-insensitive
+     */
+    public RateLimitFilter(Map<String, Limit> roleLimits, Limit defaultLimit, Limit anonymousLimit,
+            long maxKeys, MeterRegistry meterRegistry) {
+        this.roleLimits = roleLimits.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(e -> ROLE_PREFIX + e.getKey().toUpperCase(), Map.Entry::getValue));
+        this.defaultLimit = defaultLimit;
+        this.anonymousLimit = anonymousLimit;
+        this.meterRegistry = meterRegistry;
+        Duration longestPeriod = Stream.concat(Stream.of(defaultLimit, anonymousLimit), roleLimits.values().stream())
+                .map(Limit::period)
+                .max(Duration::compareTo)
+                .orElseThrow();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(longestPeriod)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String tier;
+        String key;
+        Limit limit;
+        if (authentication instanceof JwtAuthenticationToken && authentication.isAuthenticated()) {
+            Map.Entry<String, Limit> role = roleLimit(authentication);
+            tier = role == null ? "default" : role.getKey();
+            limit = role == null ? defaultLimit : role.getValue();
+            key = "sub:" + tier + ":" + authentication.getName();
+        } else {
+            tier = "anonymous";
+            limit = anonymousLimit;
+            key = "ip:" + request.getRemoteAddr();
+        }
+        Bucket bucket = buckets.get(key, k -> new Bucket(limit));
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        meterRegistry.counter("http.server.requests.throttled", "tier", tier).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, please retry shortly");
+    }
+
+    /**
+     * The configured role with the highest rate (then largest burst) among the caller's
+     * authorities, or null.
+     */
+    private Map.Entry<String, Limit> roleLimit(Authentication authentication) {
+        Map.Entry<String, Limit> best = null;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            Limit limit = roleLimits.get(authority.getAuthority());
+            if (limit != null && (best == null || limit.isMoreGenerousThan(best.getValue()))) {
+                best = Map.entry(authority.getAuthority().substring(ROLE_PREFIX.length()).toLowerCase(), limit);
+            }
+        }
+        return best;
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * Token bucket in its GCRA form: full stores the nanoTime at which the bucket will be
+     * full again. Each request pushes it one interval later; a request that would push it
+     * more than a full bucket's worth past now is refused.
+     */
+    static final class Bucket {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLong full;
+
+        Bucket(Limit limit) {
+            this.intervalNanos = limit.intervalNanos();
+            this.burstNanos = intervalNanos * limit.capacity();
+            this.full = new AtomicLong(System.nanoTime());
+        }
+
+        /** Take a token; returns 0 on success, otherwise nanos until one is available. */
+        long tryAcquire(long now) {
+            while (true) {
+                long current = full.get();
+                long next = (current - now > 0 ? current : now) + intervalNanos;
+                long ahead = next - now;
+                if (ahead > burstNanos) {
+                    return ahead - burstNanos;
+                }
+                if (full.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
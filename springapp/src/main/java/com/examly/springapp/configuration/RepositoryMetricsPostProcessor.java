@@ -0,0 +1,84 @@
+package com.examly.springapp.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the JdbcTemplate-based @Repository classes (ConversationBodyStore,
+ * ConversationArchiveStore, ConversationBatchWriter) under the same
+ * spring.data.repository.invocations timer and tags that Boot records for Spring Data
+ * repositories, so every repository method shows up in one metric. Calls slower than
+ * the threshold are logged, next to Hibernate's slow-query log for JPA queries.
+ *
+ * Spring Data repositories are left alone; Boot already times them.
+ */
+public class RepositoryMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    static final String METRIC = "spring.data.repository.invocations";
+
+    private static final Logger log = LoggerFactory.getLogger(RepositoryMetricsPostProcessor.class);
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry, Duration slowThreshold) {
+        this.advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Repository.class, true),
+                new TimingInterceptor(meterRegistry, slowThreshold.toNanos()));
+        setBeforeExistingAdvisors(true);
+    }
+
+    @Override
+    protected boolean isEligible(Class<?> targetClass) {
+        return !org.springframework.data.repository.Repository.class.isAssignableFrom(targetClass)
+                && super.isEligible(targetClass);
+    }
+
+    private static final class TimingInterceptor implements MethodInterceptor {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final long slowNanos;
+
+        TimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry, long slowNanos) {
+            this.meterRegistry = meterRegistry;
+            this.slowNanos = slowNanos;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            long start = System.nanoTime();
+            String exception = "None";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                String repository = invocation.getMethod().getDeclaringClass().getSimpleName();
+                String method = invocation.getMethod().getName();
+                MeterRegistry registry = meterRegistry.getIfAvailable();
+                if (registry != null) {
+                    Timer.builder(METRIC)
+                            .tag("repository", repository)
+                            .tag("method", method)
+                            .tag("state", exception.equals("None") ? "SUCCESS" : "ERROR")
+                            .tag("exception", exception)
+                            .register(registry)
+                            .record(elapsed, TimeUnit.NANOSECONDS);
+                }
+                if (elapsed >= slowNanos) {
+                    log.info("Slow repository call {}.{} took {} ms", repository, method, elapsed / 1_000_000);
+                }
+            }
+        }
+    }
+}
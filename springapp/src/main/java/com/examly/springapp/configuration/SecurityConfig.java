@@ -1,25 +1,32 @@
 package com.examly.springapp.configuration;
 
+import com.examly.springapp.service.UserService;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -28,15 +35,20 @@ import org.springframework.core.convert.converter.Converter;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Stateless JWT Bearer security using Spring Security's OAuth2 Resource Server.
  * Exposes:
  * - SecurityFilterChain with /api/auth/** and OpenAPI endpoints permitted
+ * - Bearer tokens from the Authorization header, or access_token on the SSE feed
  * - JwtDecoder based on HS256 secret
  * - JwtAuthenticationConverter mapping "roles" claim -> GrantedAuthorities
+ *   (or the user's current role, with app.security.authorities-source=database)
  * - Basic CORS for localhost dev
+ * - RateLimitFilter after bearer-token authentication (app.rate-limit.*)
  */
 @Configuration
 @EnableWebSecurity
@@ -44,11 +56,35 @@ import java.util.List;
 @Profile("!test") // <-- active in prod/dev, NOT in tests
 public class SecurityConfig {
 
+    // EventSource can't send headers, so the feed alone also takes the token as a query parameter
+    private static final String EVENTS_PATH = "/api/chats/events";
+
     @Value("${app.jwt.secret:ThisIsADevOnlySecretChangeMeToAtLeast32Chars}")
     private String jwtSecret;
 
+    @Value("${app.security.authorities-source:jwt}")
+    private String authoritiesSource;
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${app.jwt.decoder-cache.max-size:10000}")
+    private long decoderCacheMaxSize;
+
+    @Value("${app.jwt.decoder-cache.max-ttl:5m}")
+    private Duration decoderCacheMaxTtl;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean rateLimitEnabled;
+
+    @Value("${app.rate-limit.max-keys:100000}")
+    private long rateLimitMaxKeys;
+
+    @Autowired
+    private Environment environment;
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, MeterRegistry meterRegistry) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(Customizer.withDefaults())
@@ -57,21 +93,53 @@ public class SecurityConfig {
                         // Allow all requests for testing
                         .anyRequest().permitAll())
                 .oauth2ResourceServer(oauth2 -> oauth2
+                        .bearerTokenResolver(bearerTokenResolver())
                         .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
+        if (rateLimitEnabled) {
+            http.addFilterAfter(rateLimitFilter(meterRegistry), BearerTokenAuthenticationFilter.class);
+        }
 
         return http.build();
     }
 
+    private static BearerTokenResolver bearerTokenResolver() {
+        DefaultBearerTokenResolver header = new DefaultBearerTokenResolver();
+        DefaultBearerTokenResolver headerOrQuery = new DefaultBearerTokenResolver();
+        headerOrQuery.setAllowUriQueryParameter(true);
+        return request -> request.getRequestURI().equals(request.getContextPath() + EVENTS_PATH)
+                ? headerOrQuery.resolve(request)
+                : header.resolve(request);
+    }
+
+    /**
+     * Not a bean: as a bean the filter would also be registered with the servlet
+     * container and run outside the security chain, before authentication.
+     */
+    private RateLimitFilter rateLimitFilter(MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        Map<String, RateLimitFilter.Limit> roles = binder
+                .bind("app.rate-limit.roles", Bindable.mapOf(String.class, RateLimitFilter.Limit.class))
+                .orElse(Map.of());
+        RateLimitFilter.Limit defaultLimit = binder.bind("app.rate-limit.default", RateLimitFilter.Limit.class)
+                .orElseGet(() -> new RateLimitFilter.Limit(300, Duration.ofMinutes(1)));
+        RateLimitFilter.Limit anonymousLimit = binder.bind("app.rate-limit.anonymous", RateLimitFilter.Limit.class)
+                .orElseGet(() -> new RateLimitFilter.Limit(60, Duration.ofMinutes(1)));
+        return new RateLimitFilter(roles, defaultLimit, anonymousLimit, rateLimitMaxKeys, meterRegistry);
+    }
+
     /**
      * Use the same HS256 key for verifying JWTs as used by JWTUtil to sign them.
+     * Verified tokens are cached (bounded by their exp claim) so a client's repeat
+     * requests skip the HMAC check and claim parsing.
      */
     @Bean
-    public JwtDecoder jwtDecoder() {
+    public JwtDecoder jwtDecoder(MeterRegistry meterRegistry) {
         SecretKey key = secretKeyFrom(jwtSecret);
-        return NimbusJwtDecoder
+        NimbusJwtDecoder nimbus = NimbusJwtDecoder
                 .withSecretKey(key)
                 .macAlgorithm(MacAlgorithm.HS256)
                 .build();
+        return new CachingJwtDecoder(nimbus, decoderCacheMaxSize, decoderCacheMaxTtl, meterRegistry);
     }
 
     private SecretKey secretKeyFrom(String secret) {
@@ -86,25 +154,27 @@ public class SecurityConfig {
     /**
      * Map "roles" claim to GrantedAuthorities. We expect values like "ROLE_USER".
      * (If your tokens use plain names like "USER", setAuthorityPrefix("ROLE_")
-     * instead.)
+     * instead.) This is the default ("jwt") and never touches the users table;
+     * "database" looks the subject up through UserService's principal cache instead.
      */
     @Bean
     public Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter delegate = new JwtGrantedAuthoritiesConverter();
-        delegate.setAuthoritiesClaimName("roles");
-        delegate.setAuthorityPrefix(""); // roles already include ROLE_ prefix from JWTUtil
-
         JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(delegate);
+        switch (authoritiesSource.trim().toLowerCase()) {
+            case "jwt" -> {
+                JwtGrantedAuthoritiesConverter delegate = new JwtGrantedAuthoritiesConverter();
+                delegate.setAuthoritiesClaimName("roles");
+                delegate.setAuthorityPrefix(""); // roles already include ROLE_ prefix from JWTUtil
+                converter.setJwtGrantedAuthoritiesConverter(delegate);
+            }
+            case "database" -> converter.setJwtGrantedAuthoritiesConverter(
+                    new DatabaseAuthoritiesConverter(userService));
+            default -> throw new IllegalStateException(
+                    "app.security.authorities-source must be jwt or database, not " + authoritiesSource);
+        }
         return converter;
     }
 
-    /** Password encoder for any form/login flows (useful for issuing tokens). */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     /** Simple permissive CORS for local dev; tighten for production. */
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
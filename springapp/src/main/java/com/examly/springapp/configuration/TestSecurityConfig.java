@@ -1,5 +1,7 @@
 package com.examly.springapp.configuration;
 
+import com.examly.springapp.service.UserService;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -14,6 +16,9 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 @Profile("test") // <-- ONLY active for tests
 public class TestSecurityConfig {
 
+    // Subject of the token MockMvc's jwt() post-processor authenticates with by default
+    static final String TEST_USERNAME = "user";
+
     @Bean
     public SecurityFilterChain testSecurityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -24,4 +29,17 @@ public class TestSecurityConfig {
 
         return http.build();
     }
+
+    /**
+     * Conversations belong to the user named by the token's subject, so requests made
+     * with jwt() need that user to exist. The password hash matches no password.
+     */
+    @Bean
+    public ApplicationRunner testUser(UserService userService) {
+        return args -> {
+            if (!userService.existsByUsername(TEST_USERNAME)) {
+                userService.createUser(TEST_USERNAME, "!", TEST_USERNAME + "@example.com", "ROLE_USER");
+            }
+        };
+    }
 }
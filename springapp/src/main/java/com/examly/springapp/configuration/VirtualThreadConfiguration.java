@@ -0,0 +1,54 @@
+package com.examly.springapp.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Opt-in virtual-thread mode (JDK 21), switched on with spring.threads.virtual.enabled=true.
+ *
+ * Boot itself then runs Tomcat request handling and the application task executor
+ * (async MVC, background jobs) on virtual threads. This configuration adds the one
+ * thing Boot does not: a gate in front of the Hikari pool sized to
+ * spring.datasource.hikari.maximum-pool-size, so the now-unbounded number of
+ * in-flight requests queue for connections instead of stampeding the pool. Requests
+ * parked at the gate are exported as db.connection.gate.waiting, since they never show
+ * up in hikaricp.connections.pending.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public static BeanPostProcessor connectionGatePostProcessor(Environment environment) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        long timeoutMs = environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionGateDataSource)) {
+                    return new ConnectionGateDataSource(dataSource, poolSize, Duration.ofMillis(timeoutMs));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionGateMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionGateDataSource gate) {
+                Gauge.builder("db.connection.gate.waiting", gate, ConnectionGateDataSource::getQueueLength)
+                        .description("Requests waiting for a database connection permit")
+                        .register(registry);
+            }
+        };
+    }
+}
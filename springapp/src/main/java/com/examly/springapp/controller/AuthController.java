@@ -1,114 +1,188 @@
 package com.examly.springapp.controller;
 
 import com.examly.springapp.configuration.JWTUtil;
+import com.examly.springapp.exception.DuplicateUserException;
 import com.examly.springapp.model.User;
 import com.examly.springapp.payload.AuthRequest;
 import com.examly.springapp.payload.AuthResponse;
 import com.examly.springapp.payload.SignupRequest;
+import com.examly.springapp.service.PasswordHashingService;
 import com.examly.springapp.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Arrays;
 import java.util.List;
-
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Login and signup. BCrypt work runs on PasswordHashingService's bounded pool and the
+ * handlers return CompletableFutures, so the request thread is released while the
+ * hash is computed; when the hashing queue is full the caller gets 429 + Retry-After.
+ * Signup is a single insert: duplicate usernames and emails are caught by the unique
+ * constraints on the users table rather than by lookups ahead of time.
+ */
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = { "http://localhost:3000", "http://localhost:3001", "http://localhost:8083" })
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
     private UserService userService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JWTUtil jwtUtil;
 
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor applicationTaskExecutor;
+
+    @Value("${app.security.bcrypt.rehash-on-login:true}")
+    private boolean rehashOnLogin;
+
     private static final List<String> VALID_ROLES = Arrays.asList(
             "ROLE_ADMIN", "ROLE_USER", "ROLE_RESEARCHER", "ROLE_ENGINEER", "ROLE_PREMIUM");
 
     @PostMapping("/signup")
-    public ResponseEntity<?> signup(@RequestBody SignupRequest request) {
+    public CompletableFuture<ResponseEntity<?>> signup(@RequestBody SignupRequest request) {
         try {
             // Validate role
             if (!VALID_ROLES.contains(request.getRole())) {
                 request.setRole("ROLE_USER"); // Default to USER role
             }
 
-            // Check if username exists
-            if (userService.existsByUsername(request.getUsername())) {
-                return ResponseEntity.badRequest()
-                        .body("Username already exists");
-            }
-
-            // Check if email exists
-            if (userService.existsByEmail(request.getEmail())) {
-                return ResponseEntity.badRequest()
-                        .body("Email already exists");
-            }
-
-            // Create user
-            User user = userService.createUser(
-                    request.getUsername(),
-                    request.getPassword(),
-                    request.getEmail(),
-                    request.getRole());
-
-            // Generate token
-            String token = jwtUtil.generateToken(user.getUsername(),
-                    List.of(() -> user.getRole()));
-
-            AuthResponse response = new AuthResponse(
-                    token,
-                    user.getUsername(),
-                    user.getEmail(),
-                    user.getRole());
-
-            return ResponseEntity.ok(response);
-
+            // Hash off the request thread, then hop back to the task executor for the insert
+            // so hashing threads never wait on the database
+            return passwordHashingService.encode(request.getPassword())
+                    .<ResponseEntity<?>>thenApplyAsync(passwordHash -> {
+                        // Create user
+                        User user = userService.createUser(
+                                request.getUsername(),
+                                passwordHash,
+                                request.getEmail(),
+                                request.getRole());
+                        return ResponseEntity.ok(authResponse(user));
+                    }, applicationTaskExecutor)
+                    .exceptionally(AuthController::signupFailed);
+
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
         } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body("Signup failed: " + e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("Signup failed: " + e.getMessage()));
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody AuthRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody AuthRequest request) {
         try {
-            User user = userService.findByUsername(request.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            // Check password
-            if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-                return ResponseEntity.badRequest()
-                        .body("Invalid username or password");
+            Optional<User> found = userService.findByUsername(request.getUsername());
+            if (found.isEmpty()) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                        .body("Login failed: User not found"));
             }
+            User user = found.get();
 
-            // Check if user is enabled
-            if (!user.isEnabled()) {
-                return ResponseEntity.badRequest()
-                        .body("Account is disabled");
-            }
+            // Check password
+            return passwordHashingService.matches(request.getPassword(), user.getPassword())
+                    .<ResponseEntity<?>>thenApply(matches -> {
+                        if (!matches) {
+                            return ResponseEntity.badRequest()
+                                    .body("Invalid username or password");
+                        }
+
+                        // Check if user is enabled
+                        if (!user.isEnabled()) {
+                            return ResponseEntity.badRequest()
+                                    .body("Account is disabled");
+                        }
+
+                        rehashIfNeeded(user, request.getPassword());
+                        return ResponseEntity.ok(authResponse(user));
+                    })
+                    .exceptionally(e -> ResponseEntity.badRequest()
+                            .body("Login failed: " + rootCause(e).getMessage()));
+
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("Login failed: " + e.getMessage()));
+        }
+    }
 
-            // Generate token
-            String token = jwtUtil.generateToken(user.getUsername(),
-                    List.of(() -> user.getRole()));
+    private AuthResponse authResponse(User user) {
+        // Generate token
+        String token = jwtUtil.generateToken(user.getUsername(),
+                List.of(() -> user.getRole()));
 
-            AuthResponse response = new AuthResponse(
-                    token,
-                    user.getUsername(),
-                    user.getEmail(),
-                    user.getRole());
+        return new AuthResponse(
+                token,
+                user.getUsername(),
+                user.getEmail(),
+                user.getRole());
+    }
 
-            return ResponseEntity.ok(response);
+    /**
+     * After a successful login, re-hash in the background if the stored hash predates the
+     * configured work factor. Best effort: skipped when the hashing queue is busy.
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!rehashOnLogin || !passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            passwordHashingService.encode(rawPassword)
+                    .thenAcceptAsync(hash -> userService.updatePasswordHash(user.getId(), hash),
+                            applicationTaskExecutor);
+        } catch (RejectedExecutionException ignored) {
+            // Try again on a later login
+        }
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body("Login failed: " + e.getMessage());
+    /** Database errors carry SQL and constraint names, so they are logged rather than returned. */
+    private static ResponseEntity<?> signupFailed(Throwable e) {
+        Throwable cause = rootCause(e);
+        if (cause instanceof DuplicateUserException duplicate) {
+            return ResponseEntity.badRequest().body(duplicate.getMessage());
+        }
+        if (cause instanceof DataIntegrityViolationException) {
+            log.warn("Signup rejected by the database", cause);
+            return ResponseEntity.badRequest().body("Signup failed: invalid user details");
+        }
+        if (cause instanceof IllegalArgumentException) {
+            // Client input the encoder refuses, such as a missing password
+            log.debug("Signup rejected", cause);
+            return ResponseEntity.badRequest().body("Signup failed: invalid user details");
         }
+        log.error("Signup failed", cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Signup failed");
+    }
+
+    private static ResponseEntity<?> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Too many authentication requests, please retry shortly");
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 }
@@ -1,76 +1,511 @@
 package com.examly.springapp.controller;
 
 import com.examly.springapp.model.Conversation;
+import com.examly.springapp.model.TimestampParser;
+import com.examly.springapp.model.User;
+import com.examly.springapp.payload.BulkIngestResponse;
+import com.examly.springapp.payload.CategoryStats;
+import com.examly.springapp.payload.ConversationCursor;
+import com.examly.springapp.payload.ConversationCursorPage;
+import com.examly.springapp.payload.ConversationSummary;
+import com.examly.springapp.repository.ConversationFieldsRepository;
+import com.examly.springapp.service.ConversationBulkIngestService;
+import com.examly.springapp.service.ConversationEventFeed;
+import com.examly.springapp.service.ConversationPurgeService;
 import com.examly.springapp.service.ConversationService;
+import com.examly.springapp.service.ConversationVersions;
+import com.examly.springapp.service.IdempotencyKeyStore;
+import com.examly.springapp.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/chats")
 @CrossOrigin
 public class ConversationController {
     
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final String FULL = "full";
+    private static final String SUMMARY = "summary";
+    // Deeper pages cost the index (page + 1) * size ranked hits; refine the query instead
+    private static final int MAX_SEARCH_WINDOW = 10_000;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    // Sent by admins to work on the conversations that have no owner; see owner()
+    private static final String OWNER_HEADER = "X-Conversation-Owner";
+    private static final String UNOWNED = "unowned";
+    private static final String ADMIN_ROLE = "ROLE_ADMIN";
+    
     @Autowired
     private ConversationService service;
     
+    @Autowired
+    private ConversationBulkIngestService bulkIngestService;
+    
+    @Autowired
+    private ConversationEventFeed eventFeed;
+    
+    @Autowired
+    private ConversationVersions versions;
+    
+    @Autowired
+    private IdempotencyKeyStore idempotencyKeys;
+    
+    @Autowired
+    private ConversationPurgeService purgeService;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private HttpServletRequest httpRequest;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.conversations.summary.preview-length:120}")
+    private int summaryPreviewLength;
+    
+    // 0 means clients may store responses but must revalidate (cheap: usually a 304)
+    @Value("${app.conversations.http-cache.max-age:0s}")
+    private Duration httpCacheMaxAge;
+    
+    /**
+     * With an Idempotency-Key header, a retry of the same request returns the conversation
+     * created by the first attempt (marked Idempotent-Replayed: true) instead of adding
+     * another row; reusing the key for a different body is rejected with 422.
+     */
     @PostMapping("/addConversation")
-    public ResponseEntity<Conversation> addConversation(@RequestBody Conversation conversation) {
-        return ResponseEntity.ok(service.addConversation(conversation));
+    public ResponseEntity<Conversation> addConversation(@RequestBody Conversation conversation,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            Principal principal) {
+        Long ownerId = user(principal).getId();
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(service.addConversation(ownerId, conversation));
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyKeyStore.MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY + " must be 1 to " + IdempotencyKeyStore.MAX_KEY_LENGTH + " characters");
+        }
+        // Keys are per caller, so two clients picking the same key don't see each other's rows
+        String key = (principal == null ? "" : principal.getName()) + "\n" + idempotencyKey;
+        IdempotencyKeyStore.Outcome<Conversation> outcome = idempotencyKeys.execute(key, fingerprint(conversation),
+                () -> service.addConversation(ownerId, conversation));
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", Boolean.toString(outcome.replayed()))
+                .body(outcome.value());
+    }
+    
+    /**
+     * Bulk import from a JSON array or an NDJSON stream. The body is parsed incrementally
+     * and written in JDBC batches; the response reports each batch and the overall rate.
+     */
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson" })
+    public ResponseEntity<BulkIngestResponse> bulkIngest(InputStream body, Principal principal) throws IOException {
+        Long ownerId = user(principal).getId();
+        try (MappingIterator<Conversation> conversations = objectMapper.readerFor(Conversation.class).readValues(body)) {
+            return ResponseEntity.ok(bulkIngestService.ingest(ownerId, conversations));
+        }
     }
     
     @GetMapping("/allConversations")
-    public ResponseEntity<List<Conversation>> getAllConversations() {
-        return ResponseEntity.ok(service.getAllConversations());
+    public ResponseEntity<?> getAllConversations(
+            @RequestParam(defaultValue = FULL) String view,
+            WebRequest request, Principal principal) {
+        Function<Conversation, ?> mapper = view(view);
+        Long ownerId = owner(principal);
+        return conditional(request, ownerId, null,
+                () -> service.getAllConversations(ownerId).stream().map(mapper).toList());
+    }
+    
+    /**
+     * Stream every conversation straight to the response, one row at a time, so heap use
+     * does not depend on table size. format=ndjson (default) writes one object per line,
+     * format=json writes a single array.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportConversations(
+            @RequestParam(defaultValue = "ndjson") String format, Principal principal) {
+        Long ownerId = owner(principal);
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && !"json".equalsIgnoreCase(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = ndjson
+                    ? objectMapper.writer().withRootValueSeparator("\n").writeValues(out)
+                    : objectMapper.writer().writeValuesAsArray(out)) {
+                service.forEachConversation(ownerId, conversation -> {
+                    try {
+                        writer.write(conversation);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+    
+    /**
+     * Server-Sent Events feed of created, updated and deleted conversations. Reconnecting
+     * clients send Last-Event-ID to receive what they missed; a "reset" event means the
+     * gap can't be replayed and the client should refetch.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Principal principal) {
+        return eventFeed.subscribe(owner(principal), lastEventId);
     }
     
     @GetMapping("/conversations")
-    public ResponseEntity<Page<Conversation>> getConversations(
+    public ResponseEntity<?> getConversations(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size) {
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = FULL) String view,
+            @RequestParam(required = false) String fields,
+            WebRequest request, Principal principal) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(service.getConversations(pageable));
+        Long ownerId = owner(principal);
+        if (fields != null) {
+            List<String> selected = fields(fields, view);
+            return conditional(request, ownerId, null,
+                    () -> service.getConversationFields(ownerId, selected, null, false, pageable));
+        }
+        Function<Conversation, ?> mapper = view(view);
+        return conditional(request, ownerId, null, () -> service.getConversations(ownerId, pageable).map(mapper));
     }
     
     @GetMapping("/conversationsByCategory")
-    public ResponseEntity<Page<Conversation>> getConversationsByCategory(
+    public ResponseEntity<?> getConversationsByCategory(
             @RequestParam String category,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size) {
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = FULL) String view,
+            @RequestParam(required = false) String fields,
+            WebRequest request, Principal principal) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(service.getConversationsByCategory(category, pageable));
+        Long ownerId = owner(principal);
+        if (fields != null) {
+            List<String> selected = fields(fields, view);
+            return conditional(request, ownerId, category,
+                    () -> service.getConversationFields(ownerId, selected, category, false, pageable));
+        }
+        Function<Conversation, ?> mapper = view(view);
+        return conditional(request, ownerId, category,
+                () -> service.getConversationsByCategory(ownerId, category, pageable).map(mapper));
     }
     
     @GetMapping("/conversationsSortedByTime")
-    public ResponseEntity<Page<Conversation>> getConversationsSortedByTime(
+    public ResponseEntity<?> getConversationsSortedByTime(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "5") int size) {
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = FULL) String view,
+            @RequestParam(required = false) String fields,
+            WebRequest request, Principal principal) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(service.getConversationsSortedByTime(pageable));
+        Long ownerId = owner(principal);
+        if (fields != null) {
+            List<String> selected = fields(fields, view);
+            return conditional(request, ownerId, null,
+                    () -> service.getConversationFields(ownerId, selected, null, true, pageable));
+        }
+        Function<Conversation, ?> mapper = view(view);
+        return conditional(request, ownerId, null,
+                () -> service.getConversationsSortedByTime(ownerId, pageable).map(mapper));
+    }
+    
+    @GetMapping("/conversationsByCursor")
+    public ResponseEntity<?> getConversationsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = FULL) String view,
+            WebRequest request, Principal principal) {
+        Function<Conversation, ?> mapper = view(view);
+        Long ownerId = owner(principal);
+        ConversationCursor after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null : ConversationCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        return conditional(request, ownerId, category, () -> {
+            Slice<Conversation> slice = category == null
+                    ? service.getConversationsAfter(ownerId, after, limit)
+                    : service.getConversationsByCategoryAfter(ownerId, category, after, limit);
+            return new ConversationCursorPage(slice, mapper);
+        });
+    }
+    
+    /** Per-category counts, average prompt/response length and newest timestamp. */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CategoryStats>> getCategoryStats(WebRequest request, Principal principal) {
+        Long ownerId = owner(principal);
+        return conditional(request, ownerId, null, () -> service.getCategoryStats(ownerId));
+    }
+    
+    /** Ranked full-text search over prompt and response; see ConversationSearchIndex. */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchConversations(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request, Principal principal) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().body("Query must not be blank");
+        }
+        int limit = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        if (page < 0 || (long) (page + 1) * limit > MAX_SEARCH_WINDOW) {
+            return ResponseEntity.badRequest().body("Page out of range: at most " + MAX_SEARCH_WINDOW + " results are reachable");
+        }
+        Long ownerId = owner(principal);
+        return conditional(request, ownerId, null, () -> service.searchConversations(ownerId, q.trim(), page, limit));
     }
     
     @GetMapping("/byCategory")
-    public ResponseEntity<List<Conversation>> getConversationsByCategory(@RequestParam String category) {
-        return ResponseEntity.ok(service.getConversationsByCategory(category));
+    public ResponseEntity<?> getConversationsByCategory(@RequestParam String category,
+            @RequestParam(defaultValue = FULL) String view,
+            WebRequest request, Principal principal) {
+        Function<Conversation, ?> mapper = view(view);
+        Long ownerId = owner(principal);
+        return conditional(request, ownerId, category,
+                () -> service.getConversationsByCategory(ownerId, category).stream().map(mapper).toList());
     }
     
     @GetMapping("/sortedByTime")
-    public ResponseEntity<List<Conversation>> getConversationsSortedByTime() {
-        return ResponseEntity.ok(service.getConversationsSortedByTime());
+    public ResponseEntity<?> getConversationsSortedByTime(
+            @RequestParam(defaultValue = FULL) String view,
+            WebRequest request, Principal principal) {
+        Function<Conversation, ?> mapper = view(view);
+        Long ownerId = owner(principal);
+        return conditional(request, ownerId, null,
+                () -> service.getConversationsSortedByTime(ownerId).stream().map(mapper).toList());
+    }
+    
+    /** Full conversation, including the complete response that summary views truncate. */
+    @GetMapping("/conversation/{id}")
+    public ResponseEntity<Conversation> getConversation(@PathVariable Long id, Principal principal) {
+        return ResponseEntity.of(service.getConversation(owner(principal), id));
+    }
+    
+    /**
+     * Delete every conversation in a category and/or created before an instant, in
+     * bounded chunks; the response reports the rows removed and the rate.
+     */
+    @DeleteMapping
+    public ResponseEntity<?> purgeConversations(@RequestParam(required = false) String category,
+            @RequestParam(required = false) String before, Principal principal) {
+        if (category == null && before == null) {
+            return ResponseEntity.badRequest().body("category or before is required");
+        }
+        Instant cutoff = null;
+        if (before != null) {
+            cutoff = TimestampParser.parse(before);
+            if (cutoff == null) {
+                return ResponseEntity.badRequest().body("Unparseable before: " + before);
+            }
+        }
+        return ResponseEntity.ok(purgeService.purge(owner(principal), category, cutoff));
     }
     
     @DeleteMapping("/deleteConversation/{id}")
-    public ResponseEntity<Void> deleteConversation(@PathVariable Long id) {
-        service.deleteConversation(id);
+    public ResponseEntity<Void> deleteConversation(@PathVariable Long id, Principal principal) {
+        service.deleteConversation(owner(principal), id);
         return ResponseEntity.ok().build();
     }
     
     @PutMapping("/updateConversation/{id}")
-    public ResponseEntity<Conversation> updateConversation(@PathVariable Long id, @RequestBody Conversation conversation) {
-        return ResponseEntity.ok(service.updateConversation(id, conversation));
+    public ResponseEntity<Conversation> updateConversation(@PathVariable Long id, @RequestBody Conversation conversation,
+            Principal principal) {
+        return ResponseEntity.ok(service.updateConversation(owner(principal), id, conversation));
+    }
+    
+    /**
+     * JSON merge patch: attributes present in the body are set (null clears them, except
+     * timestamp, which cannot be cleared), absent ones are left alone. Include "version" from a previous read to fail with 409 if the
+     * conversation has changed since.
+     */
+    @PatchMapping(value = "/updateConversation/{id}", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json" })
+    public ResponseEntity<Conversation> patchConversation(@PathVariable Long id, @RequestBody Map<String, Object> body,
+            Principal principal) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Long expectedVersion = null;
+        for (Map.Entry<String, Object> entry : body.entrySet()) {
+            String field = entry.getKey();
+            Object value = entry.getValue();
+            switch (field) {
+                case "id" -> {
+                    if (value != null && !id.equals(asLong(field, value))) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "id cannot be changed");
+                    }
+                }
+                case "version" -> expectedVersion = value == null ? null : asLong(field, value);
+                case "prompt", "response", "category" -> changes.put(field, asString(field, value));
+                case "timestamp" -> {
+                    // Rows without a timestamp drop out of cursor paging, time ordering and retention
+                    if (value == null) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "timestamp cannot be null");
+                    }
+                    Instant timestamp = TimestampParser.parse(asString(field, value));
+                    if (timestamp == null) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unparseable timestamp: " + value);
+                    }
+                    changes.put(field, timestamp);
+                }
+                default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + field);
+            }
+        }
+        return ResponseEntity.ok(service.patchConversation(owner(principal), id, changes, expectedVersion));
+    }
+    
+    /**
+     * The user named by the token's subject. Callers without a token, and tokens of users
+     * that have since been deleted or disabled, are refused with 401.
+     */
+    private User user(Principal principal) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
+        }
+        return userService.findByUsername(principal.getName())
+                .filter(User::isEnabled)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unknown or disabled user"));
+    }
+    
+    /**
+     * Whose conversations the request reads or changes: the caller's own. Conversations
+     * stored before ownership was recorded have no owner (null); only an admin reaches
+     * them, by sending X-Conversation-Owner: unowned. New conversations are always the
+     * caller's (see user()).
+     */
+    private Long owner(Principal principal) {
+        User user = user(principal);
+        String owner = httpRequest.getHeader(OWNER_HEADER);
+        if (owner == null) {
+            return user.getId();
+        }
+        if (!UNOWNED.equalsIgnoreCase(owner.trim())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, OWNER_HEADER + " must be " + UNOWNED);
+        }
+        if (!ADMIN_ROLE.equals(user.getRole())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, OWNER_HEADER + " is only allowed for admins");
+        }
+        return null;
+    }
+    
+    private static String asString(String field, Object value) {
+        if (value != null && !(value instanceof String)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, field + " must be a string");
+        }
+        return (String) value;
+    }
+    
+    private static long asLong(String field, Object value) {
+        if (!(value instanceof Integer || value instanceof Long)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, field + " must be an integer");
+        }
+        return ((Number) value).longValue();
+    }
+    
+    // Identifies the request a key was first used with; hashed so long responses aren't kept twice
+    private String fingerprint(Conversation conversation) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(conversation);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * view=full (default) sends conversations as stored; view=summary cuts each response
+     * to a preview, which shrinks list pages of long LLM answers by an order of magnitude.
+     */
+    private Function<Conversation, ?> view(String view) {
+        if (FULL.equalsIgnoreCase(view)) {
+            return Function.identity();
+        }
+        if (SUMMARY.equalsIgnoreCase(view)) {
+            return conversation -> ConversationSummary.of(conversation, summaryPreviewLength);
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported view: " + view);
+    }
+    
+    /**
+     * fields=prompt,category,... selects only those columns (id is always included); the
+     * query itself reads fewer columns, unlike view=summary which trims after loading.
+     */
+    private static List<String> fields(String fields, String view) {
+        if (!FULL.equalsIgnoreCase(view)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Use either fields or view, not both");
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ConversationFieldsRepository.SELECTABLE_FIELDS.contains(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return List.copyOf(selected);
+    }
+    
+    /**
+     * Answer with 304 when If-None-Match still matches the owner's version of the scope,
+     * before the query runs; otherwise run it and tag the response. The tag is taken before
+     * the query, so a write racing the read can only make the next poll do a full fetch.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, Long ownerId, String category,
+            Supplier<T> body) {
+        String etag = versions.etag(ownerId, category);
+        CacheControl cacheControl = httpCacheMaxAge.isZero()
+                ? CacheControl.noCache().cachePrivate()
+                : CacheControl.maxAge(httpCacheMaxAge).cachePrivate().mustRevalidate();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.examly.springapp.event;
+
+import com.examly.springapp.model.Conversation;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published by the conversation write paths after the change has been committed.
+ * Listeners run synchronously on the writer's thread, so anything they invalidate
+ * is gone by the time the write call returns.
+ */
+public class ConversationChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED, ARCHIVED }
+
+    /** One owner's listings of one category; category is null for uncategorized rows. */
+    public record Scope(Long ownerId, String category) {
+    }
+
+    private final Type type;
+    private final List<Conversation> conversations; // new state; for DELETED and ARCHIVED the rows affected
+    private final List<Conversation> previous;      // UPDATED only, same order as conversations
+    private final Set<String> previousCategories;   // categories left by a patch; previous is then empty
+    private final boolean partial;
+
+    private ConversationChangedEvent(Type type, List<Conversation> conversations, List<Conversation> previous,
+            Set<String> previousCategories, boolean partial) {
+        this.type = type;
+        this.conversations = conversations;
+        this.previous = previous;
+        this.previousCategories = previousCategories;
+        this.partial = partial;
+    }
+
+    public static ConversationChangedEvent created(List<Conversation> conversations) {
+        return new ConversationChangedEvent(Type.CREATED, List.copyOf(conversations), List.of(), Set.of(), false);
+    }
+
+    public static ConversationChangedEvent updated(Conversation previous, Conversation current) {
+        return new ConversationChangedEvent(Type.UPDATED, List.of(current), List.of(previous), Set.of(), false);
+    }
+
+    /**
+     * An update applied in place without reading the old row first: only its category is
+     * known (it may be null), so listeners that need the old values must recount.
+     */
+    public static ConversationChangedEvent patched(String previousCategory, Conversation current) {
+        return new ConversationChangedEvent(Type.UPDATED, List.of(current), List.of(),
+                Collections.singleton(previousCategory), true);
+    }
+
+    public static ConversationChangedEvent deleted(List<Conversation> conversations) {
+        return new ConversationChangedEvent(Type.DELETED, List.copyOf(conversations), List.of(), Set.of(), false);
+    }
+
+    /** Rows removed by a set-based delete; they carry only id, owner, category and timestamp. */
+    public static ConversationChangedEvent purged(List<Conversation> conversations) {
+        return new ConversationChangedEvent(Type.DELETED, List.copyOf(conversations), List.of(), Set.of(), true);
+    }
+
+    /**
+     * Rows moved unchanged into conversation_archive, carrying the same fields as purged().
+     * Their content is the same, but listings that include them now order them differently.
+     */
+    public static ConversationChangedEvent archived(List<Conversation> conversations) {
+        return new ConversationChangedEvent(Type.ARCHIVED, List.copyOf(conversations), List.of(), Set.of(), true);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<Conversation> getConversations() {
+        return conversations;
+    }
+
+    public List<Conversation> getPrevious() {
+        return previous;
+    }
+
+    /** True when the rows don't carry their full old state, so per-row deltas can't be applied. */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Every owner and category touched by the change, including the old category of a
+     * moved conversation. A conversation never changes owner.
+     */
+    public Set<Scope> getScopes() {
+        Set<Scope> scopes = new LinkedHashSet<>();
+        conversations.forEach(c -> scopes.add(new Scope(c.getOwnerId(), c.getCategory())));
+        previous.forEach(c -> scopes.add(new Scope(c.getOwnerId(), c.getCategory())));
+        if (!previousCategories.isEmpty()) {
+            Long ownerId = conversations.get(0).getOwnerId();
+            previousCategories.forEach(category -> scopes.add(new Scope(ownerId, category)));
+        }
+        return scopes;
+    }
+}
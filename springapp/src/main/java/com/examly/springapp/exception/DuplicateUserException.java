@@ -0,0 +1,7 @@
+package com.examly.springapp.exception;
+
+public class DuplicateUserException extends RuntimeException {
+    public DuplicateUserException(String message) {
+        super(message);
+    }
+}
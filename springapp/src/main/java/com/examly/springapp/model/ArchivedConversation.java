@@ -0,0 +1,71 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * A conversation moved out of the hot conversation table by ConversationArchiver once it
+ * is older than the archive cutoff. The row keeps its id and owner and carries its
+ * response body inline (as stored in conversation_body, possibly compressed), so the
+ * archive is one append-mostly table that the hot table's indexes no longer have to cover.
+ *
+ * Mapped so the schema is generated; rows are read and written through
+ * ConversationArchiveStore.
+ */
+@Entity
+@Table(name = "conversation_archive", indexes = {
+        @Index(name = "idx_conversation_archive_owner_category_created_at",
+                columnList = "owner_id, category, created_at, id"),
+        @Index(name = "idx_conversation_archive_owner_created_at", columnList = "owner_id, created_at, id"),
+        @Index(name = "idx_conversation_archive_created_at", columnList = "created_at, id")
+})
+public class ArchivedConversation {
+    @Id
+    private Long id;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_conversation_archive_owner"))
+    private User owner;
+
+    private String prompt;
+    private String category;
+
+    @Column(name = "created_at", nullable = false)
+    @JdbcTypeCode(SqlTypes.TIMESTAMP)
+    private Instant timestamp;
+
+    @Column(nullable = false)
+    private long version;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    private String response;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARBINARY)
+    private byte[] compressed;
+
+    @Column(name = "response_length", nullable = false)
+    private int responseLength;
+
+    @Column(name = "archived_at", nullable = false)
+    @JdbcTypeCode(SqlTypes.TIMESTAMP)
+    private Instant archivedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -1,19 +1,74 @@
 package com.examly.springapp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
 
 @Entity
+@Table(indexes = {
+        // Every listing is scoped to one owner: serve category and time-sorted listings as
+        // range scans within the owner's rows
+        @Index(name = "idx_conversation_owner_category_created_at", columnList = "owner_id, category, created_at, id"),
+        @Index(name = "idx_conversation_owner_created_at", columnList = "owner_id, created_at, id"),
+        // Age-based jobs (archiving, retention) run across all owners
+        @Index(name = "idx_conversation_created_at", columnList = "created_at, id")
+})
 @Data
 public class Conversation {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // The user named by the JWT subject that created it; null for conversations stored
+    // before ownership was recorded, which only admins can reach. Set by the server, never
+    // by clients.
+    @Column(name = "owner_id")
+    @JsonIgnore
+    private Long ownerId;
+
+    // Mapped only so the schema gets the foreign key; rows are written and filtered by ownerId
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_conversation_owner"))
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User owner;
+
     private String prompt;
+
+    // Stored in conversation_body and attached by ConversationBodyStore only when a row is returned
+    @Transient
     private String response;
+
     private String category;
-    private String timestamp;
+
+    // DATETIME(6) in UTC; the legacy varchar "timestamp" column is migrated by ConversationTimestampBackfill
+    @Column(name = "created_at")
+    @JdbcTypeCode(SqlTypes.TIMESTAMP) // DATETIME(6), not MySQL TIMESTAMP with its 2038 limit
+    @JsonDeserialize(using = LenientInstantDeserializer.class)
+    private Instant timestamp;
+
+    // Optimistic lock: bumped by every update; a PUT or PATCH carrying a stale value gets 409
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @PrePersist
+    void defaultTimestamp() {
+        if (timestamp == null) {
+            timestamp = Instant.now();
+        }
+    }
 
     // Explicitly define getters to ensure Jackson serialization works
     public Long getId() {
@@ -36,7 +91,11 @@ public class Conversation {
         return category;
     }
 
-    public String getTimestamp() {
+    public Instant getTimestamp() {
         return timestamp;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+}
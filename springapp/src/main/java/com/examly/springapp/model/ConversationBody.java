@@ -0,0 +1,56 @@
+package com.examly.springapp.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * The response text of a conversation, kept out of the conversation table so scans and
+ * index lookups on the hot table don't drag multi-KB bodies through the buffer pool.
+ * Long bodies may be stored deflate-compressed instead of as text.
+ *
+ * Mapped so the schema (including the cascading foreign key) is generated; rows are read
+ * and written in batches through ConversationBodyStore rather than through the
+ * EntityManager.
+ */
+@Entity
+@Table(name = "conversation_body")
+public class ConversationBody {
+    @Id
+    private Long conversationId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id")
+    @OnDelete(action = OnDeleteAction.CASCADE) // deleting a conversation deletes its body
+    private Conversation conversation;
+
+    // Exactly one of response / compressed is set
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR) // LONGTEXT on MySQL
+    private String response;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARBINARY) // LONGBLOB on MySQL
+    private byte[] compressed;
+
+    // Characters in the uncompressed response, so lengths can be summed without reading bodies
+    @Column(name = "response_length", nullable = false)
+    private int responseLength;
+
+    public Long getConversationId() {
+        return conversationId;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public byte[] getCompressed() {
+        return compressed;
+    }
+
+    public int getResponseLength() {
+        return responseLength;
+    }
+}
@@ -0,0 +1,30 @@
+package com.examly.springapp.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/** Accepts epoch millis or any string {@link TimestampParser} understands, so existing clients keep working. */
+public class LenientInstantDeserializer extends StdDeserializer<Instant> {
+
+    public LenientInstantDeserializer() {
+        super(Instant.class);
+    }
+
+    @Override
+    public Instant deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return Instant.ofEpochMilli(parser.getLongValue());
+        }
+        String text = parser.getValueAsString();
+        Instant parsed = TimestampParser.parse(text);
+        if (parsed == null && text != null && !text.isBlank()) {
+            return (Instant) context.handleWeirdStringValue(Instant.class, text, "Unrecognised timestamp");
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,60 @@
+package com.examly.springapp.model;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses the timestamp formats clients have historically sent as strings:
+ * ISO instants/offsets ("2025-09-04T12:00:00Z"), zone-less ISO date-times
+ * ("2025-09-04T12:00:00", read as UTC), "yyyy-MM-dd HH:mm:ss", plain dates
+ * and epoch milliseconds.
+ */
+public final class TimestampParser {
+
+    private static final DateTimeFormatter SQL_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss[.SSSSSS]");
+
+    private TimestampParser() {
+    }
+
+    /** @return the parsed instant, or null if the value is blank or not a recognised format */
+    public static Instant parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim();
+        if (text.chars().allMatch(Character::isDigit)) {
+            try {
+                return Instant.ofEpochMilli(Long.parseLong(text));
+            } catch (NumberFormatException | DateTimeException ignored) {
+                // too many digits for epoch millis
+                return null;
+            }
+        }
+        try {
+            return OffsetDateTime.parse(text).toInstant();
+        } catch (DateTimeParseException ignored) {
+            // fall through to zone-less formats
+        }
+        try {
+            return LocalDateTime.parse(text).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException ignored) {
+            // fall through
+        }
+        try {
+            return LocalDateTime.parse(text, SQL_DATE_TIME).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException ignored) {
+            // fall through
+        }
+        try {
+            return LocalDate.parse(text).atStartOfDay().toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+}
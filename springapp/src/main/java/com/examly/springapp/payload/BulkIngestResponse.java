@@ -0,0 +1,35 @@
+package com.examly.springapp.payload;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkIngestResponse {
+    private int batchSize;
+    private long received;
+    private long inserted;
+    private long failed;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private String error; // set when the input could not be parsed; rows before it are kept
+    private List<BatchResult> batches = new ArrayList<>();
+
+    @Data
+    public static class BatchResult {
+        private int batch;
+        private int rows;
+        private boolean success;
+        private long elapsedMs;
+        private String error;
+
+        public BatchResult(int batch, int rows, boolean success, long elapsedMs, String error) {
+            this.batch = batch;
+            this.rows = rows;
+            this.success = success;
+            this.elapsedMs = elapsedMs;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.examly.springapp.payload;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class CategoryStats {
+    private String category; // null for conversations without a category
+    private long count;
+    private double averagePromptLength;
+    private double averageResponseLength;
+    private Instant newestTimestamp;
+}
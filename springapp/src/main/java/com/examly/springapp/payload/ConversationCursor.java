@@ -0,0 +1,60 @@
+package com.examly.springapp.payload;
+
+import com.examly.springapp.model.Conversation;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor pointing at the last conversation of a slice.
+ * Encoded as URL-safe Base64 of "timestamp|id" so clients treat it as a token.
+ */
+public class ConversationCursor {
+    private static final char SEPARATOR = '|';
+
+    private final Instant timestamp;
+    private final Long id;
+
+    public ConversationCursor(Instant timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public static ConversationCursor of(Conversation conversation) {
+        return new ConversationCursor(conversation.getTimestamp(), conversation.getId());
+    }
+
+    /** Decode a cursor produced by {@link #encode()}; throws IllegalArgumentException if malformed. */
+    public static ConversationCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int split = raw.lastIndexOf(SEPARATOR);
+        if (split < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            return new ConversationCursor(Instant.parse(raw.substring(0, split)), Long.valueOf(raw.substring(split + 1)));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,31 @@
+package com.examly.springapp.payload;
+
+import com.examly.springapp.model.Conversation;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+public class ConversationCursorPage {
+    private List<?> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // null on the last slice
+
+    public ConversationCursorPage(Slice<Conversation> slice) {
+        this(slice, Function.identity());
+    }
+
+    /** view maps each conversation to what is sent, e.g. a ConversationSummary. */
+    public ConversationCursorPage(Slice<Conversation> slice, Function<Conversation, ?> view) {
+        List<Conversation> rows = slice.getContent();
+        this.content = rows.stream().map(view).toList();
+        this.size = slice.getNumberOfElements();
+        this.hasNext = slice.hasNext();
+        this.nextCursor = slice.hasNext() && !rows.isEmpty()
+                ? ConversationCursor.of(rows.get(rows.size() - 1)).encode()
+                : null;
+    }
+}
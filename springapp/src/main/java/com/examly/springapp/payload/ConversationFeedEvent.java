@@ -0,0 +1,13 @@
+package com.examly.springapp.payload;
+
+import com.examly.springapp.model.Conversation;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ConversationFeedEvent {
+    private String type; // CREATED, UPDATED or DELETED
+    private List<Long> ids;
+    private List<Conversation> conversations; // new state; null for DELETED
+}
@@ -0,0 +1,29 @@
+package com.examly.springapp.payload;
+
+import com.examly.springapp.model.Conversation;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ConversationSearchResponse {
+    private String query;
+    private int page;
+    private int size;
+    private long totalHits;
+    private boolean totalHitsExact; // false when totalHits is a lower bound
+    private long elapsedMs;
+    private List<Hit> hits = new ArrayList<>(); // best match first
+
+    @Data
+    public static class Hit {
+        private float score;
+        private Conversation conversation;
+
+        public Hit(float score, Conversation conversation) {
+            this.score = score;
+            this.conversation = conversation;
+        }
+    }
+}
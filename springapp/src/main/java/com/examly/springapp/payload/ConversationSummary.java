@@ -0,0 +1,42 @@
+package com.examly.springapp.payload;
+
+import com.examly.springapp.model.Conversation;
+import lombok.Data;
+
+import java.time.Instant;
+
+/** List view of a conversation: the response is cut to a preview, fetch the full one by id. */
+@Data
+public class ConversationSummary {
+    private Long id;
+    private String prompt;
+    private String responsePreview;
+    private int responseLength;
+    private boolean truncated;
+    private String category;
+    private Instant timestamp;
+
+    public static ConversationSummary of(Conversation conversation, int previewLength) {
+        ConversationSummary summary = new ConversationSummary();
+        summary.setId(conversation.getId());
+        summary.setPrompt(conversation.getPrompt());
+        summary.setCategory(conversation.getCategory());
+        summary.setTimestamp(conversation.getTimestamp());
+        String response = conversation.getResponse();
+        if (response != null) {
+            summary.setResponseLength(response.length());
+            summary.setTruncated(response.length() > previewLength);
+            summary.setResponsePreview(truncate(response, previewLength));
+        }
+        return summary;
+    }
+
+    private static String truncate(String text, int length) {
+        if (text.length() <= length) {
+            return text;
+        }
+        // Don't split a surrogate pair
+        int end = Character.isHighSurrogate(text.charAt(length - 1)) ? length - 1 : length;
+        return text.substring(0, end);
+    }
+}
@@ -0,0 +1,16 @@
+package com.examly.springapp.payload;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class PurgeResponse {
+    private String category; // null when every category was purged
+    private Instant before;  // null when the whole category was purged
+    private int chunkSize;
+    private long deleted;
+    private int chunks;
+    private long elapsedMs;
+    private double rowsPerSecond;
+}
@@ -0,0 +1,299 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.Conversation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes the conversation_archive table (see ArchivedConversation).
+ *
+ * Every archived row is older than every hot row except for the few written with an old
+ * timestamp since the last archiver run, so the newest archived timestamp works as a
+ * watermark: readers skip the archive whenever the hot table alone already fills the
+ * result, and skip it entirely while it is empty. The watermark and per-category counts
+ * are cached; they are refreshed after changes made through this node and on a timer
+ * for changes made by others.
+ *
+ * Reads for callers are scoped to one owner like ConversationRepository's (a null owner
+ * means the unowned rows); the watermark is kept across all owners, which only makes
+ * the skip more conservative.
+ */
+@Repository
+public class ConversationArchiveStore {
+
+    private static final int IN_CHUNK = 500;
+
+    private static final String COLUMNS = "id, owner_id, prompt, category, created_at, version, response, compressed";
+    private static final String SELECT = "select " + COLUMNS + " from conversation_archive";
+
+    // Copies hot rows with their bodies; must run in the transaction that deletes them
+    private static final String MOVE = "insert into conversation_archive"
+            + " (id, owner_id, prompt, category, created_at, version, response, compressed, response_length,"
+            + " archived_at)"
+            + " select c.id, c.owner_id, c.prompt, c.category, c.created_at, c.version, b.response, b.compressed,"
+            + " coalesce(b.response_length, 0), ?"
+            + " from conversation c left join conversation_body b on b.conversation_id = c.id where c.id in ";
+
+    private static final RowMapper<Conversation> ROW = (rs, rowNum) -> {
+        Conversation conversation = new Conversation();
+        conversation.setId(rs.getLong("id"));
+        conversation.setOwnerId(rs.getObject("owner_id", Long.class));
+        conversation.setPrompt(rs.getString("prompt"));
+        conversation.setCategory(rs.getString("category"));
+        conversation.setTimestamp(rs.getTimestamp("created_at").toInstant());
+        conversation.setVersion(rs.getLong("version"));
+        conversation.setResponse(ConversationBodyStore.decode(rs.getString("response"), rs.getBytes("compressed")));
+        return conversation;
+    };
+
+    // Counts are cached per owner and category (null for all categories)
+    private record CountKey(Long ownerId, String category) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<CountKey, Long> counts = new ConcurrentHashMap<>();
+    private volatile Optional<Instant> newest;
+
+    public ConversationArchiveStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Re-read the watermark and forget cached counts; picks up archiving done by other nodes. */
+    @Scheduled(fixedDelayString = "${app.conversations.archive.refresh-interval:PT1M}")
+    public void refresh() {
+        counts.clear();
+        Timestamp max = jdbcTemplate.queryForObject("select max(created_at) from conversation_archive", Timestamp.class);
+        newest = Optional.ofNullable(max).map(Timestamp::toInstant);
+    }
+
+    /** Timestamp of the newest archived row, or empty when the archive is empty. */
+    public Optional<Instant> newestTimestamp() {
+        Optional<Instant> current = newest;
+        if (current == null) {
+            refresh();
+            current = newest;
+        }
+        return current;
+    }
+
+    public boolean isEmpty() {
+        return newestTimestamp().isEmpty();
+    }
+
+    /**
+     * Whether an archived row could sort among newest-first hot rows that reach down to
+     * oldestHot; false lets a reader that already has enough hot rows skip the archive.
+     */
+    public boolean overlaps(Instant oldestHot) {
+        Optional<Instant> watermark = newestTimestamp();
+        return watermark.isPresent() && (oldestHot == null || !watermark.get().isBefore(oldestHot));
+    }
+
+    public Optional<Conversation> findById(Long id, Long ownerId) {
+        if (isEmpty()) {
+            return Optional.empty();
+        }
+        List<Object> args = new ArrayList<>(List.of(id));
+        String owner = OwnerCondition.of("owner_id", ownerId, args);
+        return jdbcTemplate.query(SELECT + " where id = ? and " + owner, ROW, args.toArray()).stream().findFirst();
+    }
+
+    public List<Conversation> findAllById(Collection<Long> ids, Long ownerId) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty() || isEmpty()) {
+            return List.of();
+        }
+        List<Conversation> rows = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += IN_CHUNK) {
+            List<Object> args = new ArrayList<>(distinct.subList(from, Math.min(from + IN_CHUNK, distinct.size())));
+            String in = placeholders(args.size());
+            String owner = OwnerCondition.of("owner_id", ownerId, args);
+            rows.addAll(jdbcTemplate.query(SELECT + " where id in " + in + " and " + owner, ROW, args.toArray()));
+        }
+        return rows;
+    }
+
+    /**
+     * Newest first, ties broken by id, optionally after a keyset cursor.
+     *
+     * @param ownerId     the owner's rows, or the unowned rows when null
+     * @param category    restrict to one category, or null for all
+     * @param beforeTime  cursor timestamp, or null to start from the newest row
+     * @param beforeId    cursor id; required with beforeTime
+     */
+    public List<Conversation> findNewest(Long ownerId, String category, Instant beforeTime, Long beforeId,
+            long offset, int limit) {
+        if (isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<String> conditions = new ArrayList<>(3);
+        List<Object> args = new ArrayList<>(7);
+        conditions.add(OwnerCondition.of("owner_id", ownerId, args));
+        if (category != null) {
+            conditions.add("category = ?");
+            args.add(category);
+        }
+        if (beforeTime != null) {
+            conditions.add("created_at <= ? and (created_at < ? or id < ?)");
+            args.add(Timestamp.from(beforeTime));
+            args.add(Timestamp.from(beforeTime));
+            args.add(beforeId);
+        }
+        args.add(limit);
+        args.add(offset);
+        return jdbcTemplate.query(SELECT + where(conditions) + " order by created_at desc, id desc limit ? offset ?",
+                ROW, args.toArray());
+    }
+
+    /** Storage (id) order, for listings that aren't sorted by time. */
+    public List<Conversation> findAll(Long ownerId, String category, long offset, int limit) {
+        if (isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<String> conditions = new ArrayList<>(2);
+        List<Object> args = new ArrayList<>(4);
+        conditions.add(OwnerCondition.of("owner_id", ownerId, args));
+        if (category != null) {
+            conditions.add("category = ?");
+            args.add(category);
+        }
+        args.add(limit);
+        args.add(offset);
+        return jdbcTemplate.query(SELECT + where(conditions) + " order by id limit ? offset ?", ROW, args.toArray());
+    }
+
+    /** Rows above an id in id order across all owners, for the search index catch-up. */
+    public List<Conversation> findByIdGreaterThan(long id, int limit) {
+        if (isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SELECT + " where id > ? order by id limit ?", ROW, id, limit);
+    }
+
+    public Optional<Long> findMaxId() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject("select max(id) from conversation_archive", Long.class));
+    }
+
+    /** Visit every archived row of one owner in id order, one chunk in memory at a time. */
+    public void forEach(Long ownerId, Consumer<Conversation> action) {
+        if (isEmpty()) {
+            return;
+        }
+        long lastId = 0;
+        List<Conversation> chunk;
+        while (true) {
+            List<Object> args = new ArrayList<>(3);
+            String owner = OwnerCondition.of("owner_id", ownerId, args);
+            args.add(lastId);
+            args.add(IN_CHUNK);
+            chunk = jdbcTemplate.query(SELECT + " where " + owner + " and id > ? order by id limit ?", ROW,
+                    args.toArray());
+            if (chunk.isEmpty()) {
+                return;
+            }
+            chunk.forEach(action);
+            lastId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    public long count(Long ownerId, String category) {
+        if (isEmpty()) {
+            return 0;
+        }
+        return counts.computeIfAbsent(new CountKey(ownerId, category), key -> {
+            List<String> conditions = new ArrayList<>(2);
+            List<Object> args = new ArrayList<>(2);
+            conditions.add(OwnerCondition.of("owner_id", ownerId, args));
+            if (category != null) {
+                conditions.add("category = ?");
+                args.add(category);
+            }
+            Long count = jdbcTemplate.queryForObject("select count(*) from conversation_archive" + where(conditions),
+                    Long.class, args.toArray());
+            return count == null ? 0 : count;
+        });
+    }
+
+    /**
+     * Move up to limit hot rows created before the cutoff, oldest first, with their bodies.
+     * Must be called inside a transaction; call changed() once it has committed. Archivers
+     * on other nodes may pick the same chunk, so its rows are locked and re-read first and
+     * only those still in the hot table are moved; the result can be shorter than the
+     * chunk, or empty, when another run got there first.
+     *
+     * @return the moved rows, carrying only id, owner, category and timestamp
+     */
+    public List<Conversation> moveOlderThan(Instant cutoff, int limit) {
+        List<Conversation> rows = jdbcTemplate.query("select id, owner_id, category, created_at from conversation"
+                + " where created_at < ? order by created_at, id limit ?",
+                (rs, rowNum) -> {
+                    Conversation row = new Conversation();
+                    row.setId(rs.getLong(1));
+                    row.setOwnerId(rs.getObject(2, Long.class));
+                    row.setCategory(rs.getString(3));
+                    row.setTimestamp(rs.getTimestamp(4).toInstant());
+                    return row;
+                }, Timestamp.from(cutoff), limit);
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        // Waits for a concurrent mover of the same rows to commit, then sees which are left
+        Set<Long> claimed = new HashSet<>(jdbcTemplate.queryForList(
+                "select id from conversation where id in " + placeholders(rows.size()) + " for update",
+                Long.class, rows.stream().map(Conversation::getId).toArray()));
+        rows.removeIf(row -> !claimed.contains(row.getId()));
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        List<Object> args = new ArrayList<>(rows.size() + 1);
+        args.add(Timestamp.from(Instant.now()));
+        rows.forEach(row -> args.add(row.getId()));
+        String ids = placeholders(rows.size());
+        jdbcTemplate.update(MOVE + ids, args.toArray());
+        // conversation_body rows go with the cascading foreign key
+        jdbcTemplate.update("delete from conversation where id in " + ids, args.subList(1, args.size()).toArray());
+        return rows;
+    }
+
+    /** Delete one archived row of the owner; returns whether it existed. */
+    public boolean deleteById(Long id, Long ownerId) {
+        List<Object> args = new ArrayList<>(List.of(id));
+        String owner = OwnerCondition.of("owner_id", ownerId, args);
+        boolean deleted = jdbcTemplate.update("delete from conversation_archive where id = ? and " + owner,
+                args.toArray()) > 0;
+        if (deleted) {
+            changed();
+        }
+        return deleted;
+    }
+
+    /** Called after rows were added to or removed from the archive. */
+    public void changed() {
+        counts.clear();
+        newest = null;
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private static String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+}
@@ -0,0 +1,67 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.Conversation;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Plain JDBC batch inserts for conversations. Hibernate cannot batch inserts for
+ * IDENTITY ids, so bulk ingest bypasses the EntityManager and sends one batched
+ * statement per chunk; with rewriteBatchedStatements=true Connector/J collapses it
+ * into a single multi-row INSERT. Generated ids are copied back onto the entities
+ * and the response bodies are then batch-inserted into conversation_body.
+ */
+@Repository
+public class ConversationBatchWriter {
+
+    private static final String INSERT = "insert into conversation (owner_id, prompt, category, created_at)"
+            + " values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConversationBodyStore bodyStore;
+
+    public ConversationBatchWriter(JdbcTemplate jdbcTemplate, ConversationBodyStore bodyStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bodyStore = bodyStore;
+    }
+
+    /** Insert the batch in one round trip; must be called inside a transaction to be atomic. */
+    public int insertAll(List<Conversation> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Integer inserted = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Conversation conversation : batch) {
+                    if (conversation.getTimestamp() == null) {
+                        conversation.setTimestamp(Instant.now());
+                    }
+                    statement.setObject(1, conversation.getOwnerId(), Types.BIGINT);
+                    statement.setString(2, conversation.getPrompt());
+                    statement.setString(3, conversation.getCategory());
+                    statement.setTimestamp(4, Timestamp.from(conversation.getTimestamp()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < batch.size()) {
+                        batch.get(i++).setId(keys.getLong(1));
+                    }
+                }
+                return batch.size();
+            }
+        });
+        bodyStore.insertAll(batch);
+        return inserted == null ? 0 : inserted;
+    }
+}
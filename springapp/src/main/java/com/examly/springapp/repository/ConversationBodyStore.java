@@ -0,0 +1,247 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.Conversation;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads and writes conversation response bodies in the conversation_body table.
+ *
+ * Bodies are only fetched for rows that are actually returned, in one IN query per
+ * chunk of ids, and are attached to the (transient) Conversation.response field so the
+ * REST shape is unchanged. A null response is stored as no row. With compression
+ * enabled, responses of at least min-length characters are stored deflated when that
+ * is smaller; the JDK codec avoids a native dependency and does well on prose.
+ *
+ * While the legacy conversation.response column still exists, bodies that haven't been
+ * moved by ConversationBodyBackfill yet are read from it, and every write clears it so
+ * the backfill never copies a stale value over a newer one.
+ */
+@Repository
+public class ConversationBodyStore {
+
+    private static final int IN_CHUNK = 500;
+
+    private static final String SELECT = "select conversation_id, response, compressed from conversation_body"
+            + " where conversation_id in ";
+    private static final String SELECT_LEGACY = "select id, response from conversation"
+            + " where response is not null and id in ";
+    private static final String UPDATE = "update conversation_body set response = ?, compressed = ?,"
+            + " response_length = ? where conversation_id = ?";
+    private static final String INSERT = "insert into conversation_body"
+            + " (conversation_id, response, compressed, response_length) values (?, ?, ?, ?)";
+    // Skips rows that already have a body or whose conversation has been deleted
+    private static final String INSERT_MISSING = "insert into conversation_body"
+            + " (conversation_id, response, compressed, response_length)"
+            + " select c.id, ?, ?, ? from conversation c where c.id = ?"
+            + " and not exists (select 1 from conversation_body b where b.conversation_id = c.id)";
+    private static final String DELETE = "delete from conversation_body where conversation_id = ?";
+    private static final String CLEAR_LEGACY = "update conversation set response = null"
+            + " where id = ? and response is not null";
+
+    private record Encoded(String text, byte[] compressed, int length) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean compressionEnabled;
+    private final int compressionMinLength;
+    private volatile boolean legacyColumn;
+
+    public ConversationBodyStore(JdbcTemplate jdbcTemplate,
+            @Value("${app.conversations.body.compression.enabled:false}") boolean compressionEnabled,
+            @Value("${app.conversations.body.compression.min-length:1024}") int compressionMinLength) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compressionEnabled = compressionEnabled;
+        this.compressionMinLength = compressionMinLength;
+    }
+
+    /** Check whether conversation still has the legacy response column; returns the result. */
+    @PostConstruct
+    public boolean detectLegacyColumn() {
+        Boolean present = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, "conversation", "response")) {
+                return columns.next();
+            }
+        });
+        legacyColumn = Boolean.TRUE.equals(present);
+        return legacyColumn;
+    }
+
+    /** Called once every legacy body has been moved; stops the per-read fallback query. */
+    public void legacyMigrated() {
+        legacyColumn = false;
+    }
+
+    /** Responses for the given ids; ids without a body are absent from the map. */
+    public Map<Long, String> findResponses(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, String> responses = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += IN_CHUNK) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + IN_CHUNK, distinct.size()));
+            jdbcTemplate.query(SELECT + placeholders(chunk.size()), rs -> {
+                responses.put(rs.getLong(1), decode(rs.getString(2), rs.getBytes(3)));
+            }, chunk.toArray());
+            if (legacyColumn) {
+                List<Long> missing = chunk.stream().filter(id -> !responses.containsKey(id)).toList();
+                if (!missing.isEmpty()) {
+                    jdbcTemplate.query(SELECT_LEGACY + placeholders(missing.size()),
+                            rs -> {
+                                responses.put(rs.getLong(1), rs.getString(2));
+                            }, missing.toArray());
+                }
+            }
+        }
+        return responses;
+    }
+
+    /** Load and set the response of every conversation in the collection; returns it for chaining. */
+    public <C extends Collection<Conversation>> C attach(C conversations) {
+        if (conversations.isEmpty()) {
+            return conversations;
+        }
+        Map<Long, String> responses = findResponses(conversations.stream().map(Conversation::getId).toList());
+        for (Conversation conversation : conversations) {
+            conversation.setResponse(responses.get(conversation.getId()));
+        }
+        return conversations;
+    }
+
+    public Conversation attach(Conversation conversation) {
+        attach(List.of(conversation));
+        return conversation;
+    }
+
+    /** Insert or replace the body of one conversation; a null response removes it. */
+    public void save(Long id, String response) {
+        if (legacyColumn) {
+            jdbcTemplate.update(CLEAR_LEGACY, id);
+        }
+        if (response == null) {
+            jdbcTemplate.update(DELETE, id);
+            return;
+        }
+        Object[] args = args(id, encode(response));
+        if (jdbcTemplate.update(UPDATE, args) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT, id, args[0], args[1], args[2]);
+        } catch (DuplicateKeyException e) {
+            // Inserted concurrently (another writer or the backfill); ours is the newer value
+            jdbcTemplate.update(UPDATE, args);
+        }
+    }
+
+    /** Batch-insert the bodies of freshly inserted conversations (ids already assigned, no body yet). */
+    public void insertAll(List<Conversation> conversations) {
+        List<Object[]> rows = new ArrayList<>(conversations.size());
+        for (Conversation conversation : conversations) {
+            if (conversation.getResponse() != null) {
+                Object[] args = args(conversation.getId(), encode(conversation.getResponse()));
+                rows.add(new Object[] { conversation.getId(), args[0], args[1], args[2] });
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+    }
+
+    /**
+     * Copy legacy bodies for conversations that have no body yet, then clear the legacy
+     * values of the given ids. Must be called inside a transaction.
+     */
+    public void moveLegacy(Map<Long, String> legacy) {
+        List<Object[]> inserts = new ArrayList<>(legacy.size());
+        List<Object[]> clears = new ArrayList<>(legacy.size());
+        legacy.forEach((id, response) -> {
+            inserts.add(args(id, encode(response)));
+            clears.add(new Object[] { id });
+        });
+        jdbcTemplate.batchUpdate(INSERT_MISSING, inserts);
+        jdbcTemplate.batchUpdate(CLEAR_LEGACY, clears);
+    }
+
+    // (response, compressed, response_length, id), the parameter order of UPDATE and INSERT_MISSING
+    private static Object[] args(Long id, Encoded encoded) {
+        return new Object[] {
+                encoded.text(),
+                new SqlParameterValue(Types.LONGVARBINARY, encoded.compressed()),
+                encoded.length(),
+                id
+        };
+    }
+
+    private Encoded encode(String response) {
+        if (compressionEnabled && response.length() >= compressionMinLength) {
+            byte[] raw = response.getBytes(StandardCharsets.UTF_8);
+            byte[] deflated = deflate(raw);
+            if (deflated.length < raw.length) {
+                return new Encoded(null, deflated, response.length());
+            }
+        }
+        return new Encoded(response, null, response.length());
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+        try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+            stream.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    /** A stored body as text: exactly one of the two columns is set, or neither for no response. */
+    static String decode(String text, byte[] compressed) {
+        return compressed != null ? inflate(compressed) : text;
+    }
+
+    /** True until ConversationBodyBackfill has moved every body out of the legacy column. */
+    public boolean isLegacyFallback() {
+        return legacyColumn;
+    }
+
+    private static String inflate(byte[] compressed) {
+        try (InflaterInputStream stream = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+}
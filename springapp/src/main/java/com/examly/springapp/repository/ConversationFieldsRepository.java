@@ -0,0 +1,41 @@
+package com.examly.springapp.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse-fieldset reads and writes: the generated SQL selects only the requested columns,
+ * so list views that don't show the response never read it, and a partial update sets
+ * only the changed columns in a single UPDATE.
+ */
+public interface ConversationFieldsRepository {
+
+    /** Attribute names a caller may ask for; id is always included. */
+    Set<String> SELECTABLE_FIELDS = Set.of("id", "prompt", "response", "category", "timestamp");
+
+    /** Columns of the conversation table a partial update may set (the response is in conversation_body). */
+    Set<String> UPDATABLE_FIELDS = Set.of("prompt", "category", "timestamp");
+
+    /**
+     * @param fields     attributes to select, in output order; each must be in SELECTABLE_FIELDS
+     * @param ownerId    the owner's rows, or the unowned rows when null
+     * @param category   restrict to one category, or null for all
+     * @param newestFirst order by timestamp descending instead of storage order
+     */
+    Page<Map<String, Object>> findFields(List<String> fields, Long ownerId, String category, boolean newestFirst,
+            Pageable pageable);
+
+    /**
+     * Set the given attributes and bump the version in one UPDATE, without loading the
+     * entity. Must run inside a transaction; managed instances of the row are not refreshed.
+     *
+     * @param ownerId         only update the row if it belongs to this owner (null: unowned)
+     * @param expectedVersion only update if the row still has this version, or null for any
+     * @return 1 if the row was updated, 0 if it doesn't exist, has another owner or its version differs
+     */
+    int updateFields(Long id, Long ownerId, Long expectedVersion, Map<String, Object> values);
+}
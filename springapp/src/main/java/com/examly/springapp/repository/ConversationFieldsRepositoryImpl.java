@@ -0,0 +1,121 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.Conversation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Picked up by Spring Data as the implementation of ConversationFieldsRepository
+class ConversationFieldsRepositoryImpl implements ConversationFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ConversationBodyStore bodyStore;
+
+    @Override
+    public Page<Map<String, Object>> findFields(List<String> fields, Long ownerId, String category,
+            boolean newestFirst, Pageable pageable) {
+        for (String field : fields) {
+            if (!SELECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Conversation> root = query.from(Conversation.class);
+        // response lives in conversation_body and is looked up by id afterwards
+        boolean withResponse = fields.contains("response");
+        List<Selection<?>> selections = new ArrayList<>(fields.size() + 1);
+        for (String field : fields) {
+            if (!field.equals("response")) {
+                selections.add(root.get(field).alias(field));
+            }
+        }
+        if (withResponse && !fields.contains("id")) {
+            selections.add(root.get("id").alias("id"));
+        }
+        query.multiselect(selections);
+        query.where(filter(cb, root, ownerId, category));
+        if (newestFirst) {
+            query.orderBy(cb.desc(root.get("timestamp")));
+        }
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        Map<Long, String> responses = withResponse
+                ? bodyStore.findResponses(rows.stream().map(row -> row.get("id", Long.class)).toList())
+                : Map.of();
+        List<Map<String, Object>> content = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String field : fields) {
+                values.put(field, field.equals("response")
+                        ? responses.get(row.get("id", Long.class))
+                        : row.get(field));
+            }
+            content.add(values);
+        }
+        // Skips the count query when the first page is already short
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(ownerId, category));
+    }
+
+    @Override
+    public int updateFields(Long id, Long ownerId, Long expectedVersion, Map<String, Object> values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Conversation> update = cb.createCriteriaUpdate(Conversation.class);
+        Root<Conversation> root = update.from(Conversation.class);
+        values.forEach((field, value) -> {
+            if (!UPDATABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be updated: " + field);
+            }
+            update.set(root.get(field), value); // a null value sets the column to NULL
+        });
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+        Predicate where = cb.and(cb.equal(root.get("id"), id), owner(cb, root, ownerId));
+        if (expectedVersion != null) {
+            where = cb.and(where, cb.equal(version, expectedVersion));
+        }
+        update.where(where);
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private long count(Long ownerId, String category) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Conversation> root = query.from(Conversation.class);
+        query.select(cb.count(root));
+        query.where(filter(cb, root, ownerId, category));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate filter(CriteriaBuilder cb, Root<Conversation> root, Long ownerId, String category) {
+        Predicate owner = owner(cb, root, ownerId);
+        return category == null ? owner : cb.and(owner, cb.equal(root.get("category"), category));
+    }
+
+    // A null owner means the unowned rows, as in ConversationRepository
+    private static Predicate owner(CriteriaBuilder cb, Root<Conversation> root, Long ownerId) {
+        return ownerId == null ? cb.isNull(root.get("ownerId")) : cb.equal(root.get("ownerId"), ownerId);
+    }
+}
@@ -1,18 +1,84 @@
 package com.examly.springapp.repository;
 
 import com.examly.springapp.model.Conversation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Every listing and single-row query is scoped to one owner (see Conversation.ownerId) and
+ * served by the indexes that lead with owner_id. A null owner selects the unowned rows:
+ * derived queries turn a null argument into "is null", and the JPQL queries compare with
+ * "is not distinct from" (MySQL's null-safe {@code <=>}), which still uses the index.
+ */
 @Repository
-public interface ConversationRepository extends JpaRepository<Conversation, Long> {
-    List<Conversation> findByCategory(String category);
-    List<Conversation> findAllByOrderByTimestampDesc();
+public interface ConversationRepository extends JpaRepository<Conversation, Long>, ConversationFieldsRepository {
+    int EXPORT_FETCH_SIZE = 500;
+
+    List<Conversation> findByOwnerId(Long ownerId);
+    List<Conversation> findByOwnerIdAndCategory(Long ownerId, String category);
+    List<Conversation> findByOwnerIdOrderByTimestampDesc(Long ownerId);
     
     // Pagination methods
-    Page<Conversation> findByCategory(String category, Pageable pageable);
-    Page<Conversation> findAllByOrderByTimestampDesc(Pageable pageable);
-}
\ No newline at end of file
+    Page<Conversation> findByOwnerId(Long ownerId, Pageable pageable);
+    Page<Conversation> findByOwnerIdAndCategory(Long ownerId, String category, Pageable pageable);
+    Page<Conversation> findByOwnerIdOrderByTimestampDesc(Long ownerId, Pageable pageable);
+
+    Optional<Conversation> findByIdAndOwnerId(Long id, Long ownerId);
+    List<Conversation> findByIdInAndOwnerId(Collection<Long> ids, Long ownerId);
+    boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+    // Keyset (seek) pagination: newest first, ties broken by id. Returning a Slice
+    // means Spring Data fetches size + 1 rows and never issues a count query.
+    @Query("select c from Conversation c where c.ownerId is not distinct from :ownerId and c.timestamp is not null"
+            + " order by c.timestamp desc, c.id desc")
+    Slice<Conversation> findFirstSlice(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query("select c from Conversation c where c.ownerId is not distinct from :ownerId"
+            + " and c.timestamp <= :timestamp and (c.timestamp < :timestamp or c.id < :id)"
+            + " order by c.timestamp desc, c.id desc")
+    Slice<Conversation> findSliceBefore(@Param("ownerId") Long ownerId, @Param("timestamp") Instant timestamp,
+            @Param("id") Long id, Pageable pageable);
+
+    @Query("select c from Conversation c where c.ownerId is not distinct from :ownerId and c.category = :category"
+            + " and c.timestamp is not null order by c.timestamp desc, c.id desc")
+    Slice<Conversation> findFirstSliceByCategory(@Param("ownerId") Long ownerId, @Param("category") String category,
+            Pageable pageable);
+
+    @Query("select c from Conversation c where c.ownerId is not distinct from :ownerId and c.category = :category"
+            + " and c.timestamp <= :timestamp and (c.timestamp < :timestamp or c.id < :id)"
+            + " order by c.timestamp desc, c.id desc")
+    Slice<Conversation> findSliceByCategoryBefore(@Param("ownerId") Long ownerId, @Param("category") String category,
+            @Param("timestamp") Instant timestamp, @Param("id") Long id, Pageable pageable);
+
+    // Streams rows from an open cursor instead of materializing a List; must be consumed
+    // inside a transaction and closed. MySQL only honours the fetch size with useCursorFetch=true.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Conversation c where c.ownerId is not distinct from :ownerId order by c.id")
+    Stream<Conversation> streamAllOrderedById(@Param("ownerId") Long ownerId);
+
+    // Id-ordered catch-up reads for the search index, across all owners
+    List<Conversation> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select max(c.id) from Conversation c")
+    Optional<Long> findMaxId();
+
+    // Empty if the row doesn't exist; a list because the category itself may be null
+    @Query("select c.category from Conversation c where c.id = :id and c.ownerId is not distinct from :ownerId")
+    List<String> findCategoryById(@Param("id") Long id, @Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,23 @@
+package com.examly.springapp.repository;
+
+import java.util.List;
+
+/**
+ * SQL restricting rows to one owner for the JdbcTemplate-based stores. A null owner
+ * means the unowned rows (owner_id is null), not every row, matching the
+ * "is not distinct from" comparisons in ConversationRepository.
+ */
+public final class OwnerCondition {
+
+    private OwnerCondition() {
+    }
+
+    /** The condition on column, adding its argument (if any) to args. */
+    public static String of(String column, Long ownerId, List<Object> args) {
+        if (ownerId == null) {
+            return column + " is null";
+        }
+        args.add(ownerId);
+        return column + " = ?";
+    }
+}
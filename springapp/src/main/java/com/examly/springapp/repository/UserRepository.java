@@ -2,7 +2,11 @@ package com.examly.springapp.repository;
 
 import com.examly.springapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -15,4 +19,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.role = :role where u.username = :username")
+    int updateRole(@Param("username") String username, @Param("role") String role);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.enabled = :enabled where u.username = :username")
+    int updateEnabled(@Param("username") String username, @Param("enabled") boolean enabled);
 }
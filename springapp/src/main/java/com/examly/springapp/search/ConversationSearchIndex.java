@@ -0,0 +1,24 @@
+package com.examly.springapp.search;
+
+import java.util.List;
+
+/**
+ * Full-text search over conversation prompts and responses. The implementation is
+ * chosen with app.search.engine: "lucene" (default) keeps an embedded index on local
+ * disk, "mysql" queries a FULLTEXT index maintained by the database.
+ */
+public interface ConversationSearchIndex {
+
+    /**
+     * Ids of the owner's conversations (the unowned ones when ownerId is null) matching
+     * the query, best match first. page is zero-based.
+     */
+    SearchHits search(Long ownerId, String query, int page, int size);
+
+    record Hit(long id, float score) {
+    }
+
+    /** totalExact is false when the engine stopped counting and total is a lower bound. */
+    record SearchHits(long total, boolean totalExact, List<Hit> hits) {
+    }
+}
@@ -0,0 +1,275 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.event.ConversationChangedEvent;
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.repository.ConversationArchiveStore;
+import com.examly.springapp.repository.ConversationBodyStore;
+import com.examly.springapp.repository.ConversationRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Embedded Lucene index over prompt and response, stored under app.search.lucene.directory.
+ *
+ * Writes made through this node are applied from ConversationChangedEvent and become
+ * searchable on the next refresh. A scheduled job catches up on rows above an id
+ * watermark, which covers the initial build, inserts made by other nodes and anything
+ * an event failed to index; the watermark is stored in the Lucene commit so a restart
+ * resumes where it left off. Updates and deletes made by other nodes are not seen: run
+ * with app.search.engine=mysql when several nodes write.
+ *
+ * Each document carries its owner, and every search is filtered to the caller's owner.
+ * An index written before owners were indexed (no format marker in its commit) is
+ * rebuilt on startup.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "lucene", matchIfMissing = true)
+public class LuceneConversationSearchIndex implements ConversationSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LuceneConversationSearchIndex.class);
+
+    static final String ID = "id";
+    static final String PROMPT = "prompt";
+    static final String RESPONSE = "response";
+    static final String OWNER = "owner";
+    private static final String WATERMARK = "watermark";
+    // Bumped when documents change shape; an index in another format is rebuilt
+    private static final String FORMAT = "format";
+    private static final String CURRENT_FORMAT = "2";
+    // Owner term of unowned conversations
+    private static final String UNOWNED = "-";
+
+    // Prompt matches rank above response matches
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(PROMPT, 2f, RESPONSE, 1f);
+
+    private final ConversationRepository repository;
+    private final ConversationBodyStore bodyStore;
+    private final ConversationArchiveStore archiveStore;
+    private final int reindexBatchSize;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searchers;
+    private volatile long watermark;
+    private boolean checkedWatermark;
+
+    public LuceneConversationSearchIndex(ConversationRepository repository, ConversationBodyStore bodyStore,
+            ConversationArchiveStore archiveStore,
+            @Value("${app.search.lucene.directory:data/search-index}") Path path,
+            @Value("${app.search.reindex.batch-size:1000}") int reindexBatchSize) throws IOException {
+        this.repository = repository;
+        this.bodyStore = bodyStore;
+        this.archiveStore = archiveStore;
+        this.reindexBatchSize = reindexBatchSize;
+        this.directory = FSDirectory.open(path);
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searchers = new SearcherManager(writer, null);
+        if (CURRENT_FORMAT.equals(commitData(FORMAT))) {
+            this.watermark = readWatermark();
+        } else {
+            if (writer.getDocStats().numDocs > 0) {
+                log.info("Search index predates format {}; rebuilding", CURRENT_FORMAT);
+            }
+            writer.deleteAll();
+            this.watermark = 0;
+        }
+    }
+
+    @Override
+    public SearchHits search(Long ownerId, String query, int page, int size) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        // The owner filter doesn't affect scores
+        Query parsed = new BooleanQuery.Builder()
+                .add(parser.parse(query), BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(OWNER, owner(ownerId))), BooleanClause.Occur.FILTER)
+                .build();
+        try {
+            IndexSearcher searcher = searchers.acquire();
+            try {
+                TopDocs top = searcher.search(parsed, (page + 1) * size);
+                StoredFields storedFields = searcher.storedFields();
+                List<Hit> hits = new ArrayList<>(size);
+                for (int i = page * size; i < top.scoreDocs.length; i++) {
+                    ScoreDoc scoreDoc = top.scoreDocs[i];
+                    Document document = storedFields.document(scoreDoc.doc, Set.of(ID));
+                    hits.add(new Hit(Long.parseLong(document.get(ID)), scoreDoc.score));
+                }
+                return new SearchHits(top.totalHits.value,
+                        top.totalHits.relation == TotalHits.Relation.EQUAL_TO, hits);
+            } finally {
+                searchers.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @EventListener
+    public void onConversationChanged(ConversationChangedEvent event) {
+        if (event.getType() == ConversationChangedEvent.Type.ARCHIVED) {
+            return; // archived rows stay searchable under the same id
+        }
+        try {
+            for (Conversation conversation : event.getConversations()) {
+                Term id = idTerm(conversation.getId());
+                if (event.getType() == ConversationChangedEvent.Type.DELETED) {
+                    writer.deleteDocuments(id);
+                } else {
+                    writer.updateDocument(id, toDocument(conversation));
+                }
+            }
+            searchers.maybeRefresh();
+        } catch (IOException e) {
+            // The write itself has committed; new rows are picked up by the next catch-up run
+            log.warn("Failed to index {} conversation change", event.getType(), e);
+        }
+    }
+
+    /** Index every row above the watermark, in id order, then commit the new watermark. */
+    @Scheduled(initialDelayString = "${app.search.reindex.initial-delay:PT5S}",
+            fixedDelayString = "${app.search.reindex.interval:PT1M}")
+    public synchronized void catchUp() throws IOException {
+        if (!checkedWatermark) {
+            discardIfAhead();
+            checkedWatermark = true;
+        }
+        long start = System.nanoTime();
+        long indexed = 0;
+        List<Conversation> batch;
+        while (!(batch = nextBatch()).isEmpty()) {
+            for (Conversation conversation : batch) {
+                writer.updateDocument(idTerm(conversation.getId()), toDocument(conversation));
+            }
+            watermark = batch.get(batch.size() - 1).getId();
+            indexed += batch.size();
+        }
+        if (writer.hasUncommittedChanges()) {
+            commit();
+            searchers.maybeRefresh();
+        }
+        if (indexed > 0) {
+            log.info("Indexed {} conversations up to id {} in {} ms", indexed, watermark,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            searchers.close();
+            writer.close();
+            directory.close();
+        }
+    }
+
+    // Rows above the watermark from the hot table and the archive, merged in id order;
+    // archived rows only show up here when the index is rebuilt
+    private List<Conversation> nextBatch() {
+        List<Conversation> hot = bodyStore.attach(repository.findByIdGreaterThanOrderByIdAsc(watermark,
+                PageRequest.of(0, reindexBatchSize)));
+        List<Conversation> archived = archiveStore.findByIdGreaterThan(watermark, reindexBatchSize);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<Conversation> merged = new ArrayList<>(hot);
+        merged.addAll(archived);
+        merged.sort(Comparator.comparing(Conversation::getId));
+        return merged.subList(0, Math.min(reindexBatchSize, merged.size()));
+    }
+
+    /** An index left over from a database that has since been reset is rebuilt from scratch. */
+    private void discardIfAhead() throws IOException {
+        long maxId = Math.max(repository.findMaxId().orElse(0L), archiveStore.findMaxId().orElse(0L));
+        if (watermark > maxId) {
+            log.info("Search index watermark {} is beyond the highest conversation id {}; rebuilding",
+                    watermark, maxId);
+            writer.deleteAll();
+            watermark = 0;
+        }
+    }
+
+    private void commit() throws IOException {
+        writer.setLiveCommitData(Map.of(WATERMARK, Long.toString(watermark), FORMAT, CURRENT_FORMAT).entrySet());
+        writer.commit();
+    }
+
+    private long readWatermark() {
+        String value = commitData(WATERMARK);
+        return value == null ? 0 : Long.parseLong(value);
+    }
+
+    private String commitData(String key) {
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (key.equals(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String owner(Long ownerId) {
+        return ownerId == null ? UNOWNED : Long.toString(ownerId);
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(ID, Long.toString(id));
+    }
+
+    private static Document toDocument(Conversation conversation) {
+        Document document = new Document();
+        document.add(new StringField(ID, Long.toString(conversation.getId()), Field.Store.YES));
+        document.add(new StringField(OWNER, owner(conversation.getOwnerId()), Field.Store.NO));
+        if (conversation.getPrompt() != null) {
+            document.add(new TextField(PROMPT, conversation.getPrompt(), Field.Store.NO));
+        }
+        if (conversation.getResponse() != null) {
+            document.add(new TextField(RESPONSE, conversation.getResponse(), Field.Store.NO));
+        }
+        return document;
+    }
+}
@@ -0,0 +1,107 @@
+package com.examly.springapp.search;
+
+import com.examly.springapp.repository.OwnerCondition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search backed by InnoDB FULLTEXT indexes on conversation.prompt and
+ * conversation_body.response (and the same columns of conversation_archive), ranked by
+ * MySQL's natural-language relevance summed over both, within the caller's owner. The
+ * database keeps the indexes current on every write, so there is nothing to
+ * maintain here beyond creating them once: that runs in the background after startup
+ * because building them on a large table takes a while. Bodies stored compressed
+ * (app.conversations.body.compression.enabled) are not searchable this way.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "mysql")
+public class MySqlFullTextSearchIndex implements ConversationSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MySqlFullTextSearchIndex.class);
+
+    private record FullTextIndex(String table, String name, String column) {
+    }
+
+    private static final List<FullTextIndex> INDEXES = List.of(
+            new FullTextIndex("conversation", "ft_conversation_prompt", "prompt"),
+            new FullTextIndex("conversation_body", "ft_conversation_body_response", "response"),
+            new FullTextIndex("conversation_archive", "ft_conversation_archive_prompt", "prompt"),
+            new FullTextIndex("conversation_archive", "ft_conversation_archive_response", "response"));
+
+    // Each branch binds the search string twice, then its owner condition (%s) if that takes
+    // an argument; bodies have no owner column, so the response branch joins its conversation
+    private static final String MATCHES = "select id, match(prompt) against (? in natural language mode) as score"
+            + " from conversation where match(prompt) against (? in natural language mode) and %1$s"
+            + " union all"
+            + " select b.conversation_id, match(b.response) against (? in natural language mode)"
+            + " from conversation_body b join conversation c on c.id = b.conversation_id"
+            + " where match(b.response) against (? in natural language mode) and %2$s"
+            + " union all"
+            + " select id, match(prompt) against (? in natural language mode)"
+            + " from conversation_archive where match(prompt) against (? in natural language mode) and %1$s"
+            + " union all"
+            + " select id, match(response) against (? in natural language mode)"
+            + " from conversation_archive where match(response) against (? in natural language mode) and %1$s";
+    private static final String COUNT = "select count(distinct id) from (" + MATCHES + ") m";
+    private static final String SELECT_PAGE = "select id, sum(score) as score from (" + MATCHES + ") m"
+            + " group by id order by score desc, id desc limit ? offset ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskExecutor taskExecutor;
+
+    public MySqlFullTextSearchIndex(JdbcTemplate jdbcTemplate,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        for (FullTextIndex index : INDEXES) {
+            Integer existing = jdbcTemplate.queryForObject("select count(*) from information_schema.statistics"
+                    + " where table_schema = database() and table_name = ? and index_name = ?",
+                    Integer.class, index.table(), index.name());
+            if (existing != null && existing > 0) {
+                continue;
+            }
+            taskExecutor.execute(() -> {
+                log.info("Creating FULLTEXT index {}; searches fail until it completes", index.name());
+                jdbcTemplate.execute("alter table " + index.table() + " add fulltext index " + index.name()
+                        + " (" + index.column() + ")");
+                log.info("FULLTEXT index {} created", index.name());
+            });
+        }
+    }
+
+    @Override
+    public SearchHits search(Long ownerId, String query, int page, int size) {
+        List<Object> ownerArgs = new ArrayList<>(1);
+        String owner = OwnerCondition.of("owner_id", ownerId, ownerArgs);
+        String bodyOwner = OwnerCondition.of("c.owner_id", ownerId, new ArrayList<>(1));
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < INDEXES.size(); i++) {
+            args.add(query);
+            args.add(query);
+            args.addAll(ownerArgs);
+        }
+        Long total = jdbcTemplate.queryForObject(COUNT.formatted(owner, bodyOwner), Long.class, args.toArray());
+        if (total == null || total == 0) {
+            return new SearchHits(0, true, List.of());
+        }
+        args.add(size);
+        args.add((long) page * size);
+        List<Hit> hits = jdbcTemplate.query(SELECT_PAGE.formatted(owner, bodyOwner),
+                (rs, row) -> new Hit(rs.getLong("id"), rs.getFloat("score")), args.toArray());
+        return new SearchHits(total, true, hits);
+    }
+}
@@ -0,0 +1,108 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ConversationChangedEvent;
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.repository.ConversationArchiveStore;
+import com.examly.springapp.repository.ConversationBodyStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Moves conversations older than app.conversations.archive.after from the hot table into
+ * conversation_archive, so the hot table and its indexes stay sized to recent traffic.
+ *
+ * Rows are moved oldest first in chunks, each chunk copied and deleted in one short
+ * transaction. Archived rows keep their id and stay readable through the same endpoints
+ * (ConversationService reads the archive when the hot table doesn't fill a result) and
+ * stay searchable. Each chunk publishes an ARCHIVED ConversationChangedEvent, so cached
+ * listings and ETags of the affected owners and categories are refreshed (moved rows now
+ * sort after the hot ones). Archived rows can be deleted but not updated.
+ * Safe to run on several nodes at once: a chunk's rows are locked before they are copied,
+ * and rows another run has already moved are skipped.
+ */
+@Component
+public class ConversationArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationArchiver.class);
+
+    private final ConversationArchiveStore archiveStore;
+    private final ConversationBodyStore bodyStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.conversations.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.conversations.archive.after:90d}")
+    private Duration after;
+
+    @Value("${app.conversations.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.conversations.archive.pause:0ms}")
+    private Duration pause;
+
+    public ConversationArchiver(ConversationArchiveStore archiveStore, ConversationBodyStore bodyStore,
+            ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate) {
+        this.archiveStore = archiveStore;
+        this.bodyStore = bodyStore;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(initialDelayString = "${app.conversations.archive.interval:PT1H}",
+            fixedDelayString = "${app.conversations.archive.interval:PT1H}")
+    public void archiveExpired() {
+        if (!enabled) {
+            return;
+        }
+        if (bodyStore.isLegacyFallback()) {
+            // Bodies still in the legacy column would be left behind
+            log.info("Skipping archiving until the conversation body backfill has finished");
+            return;
+        }
+        archiveOlderThan(Instant.now().minus(after));
+    }
+
+    /** Move every hot row created before the cutoff; returns the number moved. */
+    public long archiveOlderThan(Instant cutoff) {
+        long started = System.nanoTime();
+        long moved = 0;
+        while (true) {
+            List<Conversation> chunk = transactionTemplate.execute(
+                    status -> archiveStore.moveOlderThan(cutoff, chunkSize));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            archiveStore.changed();
+            eventPublisher.publishEvent(ConversationChangedEvent.archived(chunk));
+            moved += chunk.size();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            if (!pause.isZero()) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (moved > 0) {
+            long elapsedNanos = System.nanoTime() - started;
+            log.info("Archived {} conversations created before {} in {} ms ({} rows/s)", moved, cutoff,
+                    elapsedNanos / 1_000_000, Math.round(moved * 1_000_000_000d / elapsedNanos));
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,90 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.repository.ConversationBodyStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Online migration of the legacy conversation.response column into conversation_body.
+ *
+ * Runs in the background after startup and walks the table by primary key in small
+ * chunks, each in its own short transaction that copies the bodies and clears the legacy
+ * values. Until it finishes, ConversationBodyStore falls back to the legacy column for
+ * rows not moved yet, so responses never disappear mid-migration. Once it logs completion
+ * the legacy column can be dropped by hand (ALTER TABLE conversation DROP COLUMN response).
+ */
+@Component
+public class ConversationBodyBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationBodyBackfill.class);
+
+    private static final String SELECT_CHUNK = "select id, response from conversation"
+            + " where id > ? and response is not null order by id limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final ConversationBodyStore bodyStore;
+    private final ConversationStatistics statistics;
+
+    @Value("${app.conversations.body-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.conversations.body-backfill.batch-size:1000}")
+    private int batchSize;
+
+    public ConversationBodyBackfill(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor, ConversationBodyStore bodyStore,
+            ConversationStatistics statistics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.bodyStore = bodyStore;
+        this.statistics = statistics;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (enabled && bodyStore.detectLegacyColumn()) {
+            taskExecutor.execute(this::backfill);
+        }
+    }
+
+    /** Move every remaining legacy body; safe to re-run and to run on several nodes at once. */
+    public void backfill() {
+        long lastId = 0;
+        long moved = 0;
+        while (true) {
+            Map<Long, String> chunk = new LinkedHashMap<>();
+            jdbcTemplate.query(SELECT_CHUNK, rs -> {
+                chunk.put(rs.getLong(1), rs.getString(2));
+            }, lastId, batchSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> bodyStore.moveLegacy(chunk));
+            for (Long id : chunk.keySet()) {
+                lastId = id;
+            }
+            moved += chunk.size();
+        }
+        bodyStore.legacyMigrated();
+        if (moved > 0) {
+            // Response lengths of rows that were still legacy counted as zero until now
+            statistics.invalidateAll();
+        }
+        log.info("Conversation body backfill finished: {} rows moved; the legacy conversation.response"
+                + " column can now be dropped", moved);
+    }
+}
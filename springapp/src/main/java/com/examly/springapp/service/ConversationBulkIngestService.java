@@ -0,0 +1,101 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ConversationChangedEvent;
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.payload.BulkIngestResponse;
+import com.examly.springapp.payload.BulkIngestResponse.BatchResult;
+import com.examly.springapp.repository.ConversationBatchWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Writes an incrementally parsed stream of conversations in fixed-size JDBC batches.
+ * Each batch commits on its own, so a bad batch is reported and skipped without
+ * rolling back the ones before it, and memory is bounded by the batch size. Every row
+ * is owned by the caller.
+ */
+@Service
+public class ConversationBulkIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationBulkIngestService.class);
+    private static final String BATCH_FAILED = "Batch could not be written";
+
+    private final ConversationBatchWriter batchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.conversations.bulk.batch-size:500}")
+    private int batchSize;
+
+    public ConversationBulkIngestService(ConversationBatchWriter batchWriter, TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher) {
+        this.batchWriter = batchWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public BulkIngestResponse ingest(Long ownerId, Iterator<Conversation> conversations) {
+        BulkIngestResponse report = new BulkIngestResponse();
+        report.setBatchSize(batchSize);
+        long started = System.nanoTime();
+        List<Conversation> batch = new ArrayList<>(batchSize);
+        try {
+            while (conversations.hasNext()) {
+                Conversation conversation = conversations.next();
+                conversation.setOwnerId(ownerId);
+                batch.add(conversation);
+                report.setReceived(report.getReceived() + 1);
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, report);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Malformed input: keep what was already parsed, stop reading the rest
+            report.setError("Invalid input after " + report.getReceived() + " rows: " + e.getMessage());
+        }
+        writeBatch(batch, report);
+
+        long elapsedNanos = System.nanoTime() - started;
+        report.setElapsedMs(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getInserted() * 1_000_000_000d / elapsedNanos);
+        return report;
+    }
+
+    private void writeBatch(List<Conversation> batch, BulkIngestResponse report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int index = report.getBatches().size();
+        long started = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> batchWriter.insertAll(batch));
+        } catch (RuntimeException e) {
+            // The cause carries SQL and constraint names; keep it in the log, not the response
+            log.warn("Bulk ingest batch {} of {} rows failed", index, batch.size(), e);
+            report.setFailed(report.getFailed() + batch.size());
+            report.getBatches().add(new BatchResult(index, batch.size(), false, elapsedMs(started), BATCH_FAILED));
+            return;
+        }
+        // Committed from here on: a failing listener must not report the batch as failed and invite a retry
+        report.setInserted(report.getInserted() + batch.size());
+        report.getBatches().add(new BatchResult(index, batch.size(), true, elapsedMs(started), null));
+        try {
+            eventPublisher.publishEvent(ConversationChangedEvent.created(batch));
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish change event for bulk ingest batch {}", index, e);
+        }
+    }
+
+    private static long elapsedMs(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+}
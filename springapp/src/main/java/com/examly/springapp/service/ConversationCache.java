@@ -0,0 +1,107 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ConversationChangedEvent;
+import com.examly.springapp.event.ConversationChangedEvent.Scope;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache for conversation query results.
+ *
+ * Entries are keyed by owner, weighed by row count and expire after a TTL. Writes
+ * invalidate the owner's entries for the touched categories plus the owner's unscoped
+ * listings; other owners' entries stay. A generation counter
+ * closes the race where a read that started before a write would otherwise store its
+ * pre-write result after the invalidation ran: such results are served once but
+ * never kept. The cache is per node, so the TTL bounds staleness across a cluster.
+ */
+@Component
+public class ConversationCache {
+
+    /**
+     * A cached query: ownerId is the owner whose rows it returns (null for the unowned
+     * rows), scope names the query, category is null for unscoped listings.
+     */
+    public record Key(Long ownerId, String scope, String category, int page, int size) {
+        public static Key of(Long ownerId, String scope, String category) {
+            return new Key(ownerId, scope, category, -1, -1);
+        }
+    }
+
+    private final Cache<Key, Object> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final boolean enabled;
+
+    public ConversationCache(
+            @Value("${app.conversations.cache.enabled:true}") boolean enabled,
+            @Value("${app.conversations.cache.max-rows:50000}") long maxRows,
+            @Value("${app.conversations.cache.ttl:30s}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxRows)
+                .weigher((Key key, Object value) -> 1 + rows(value))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "conversations");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        long startGeneration = generation.get();
+        T value = loader.get();
+        // Kept only if no write landed while loading. The check runs under the entry's lock,
+        // so the value is either stored before a racing invalidate() removes it or not at all
+        cache.asMap().compute(key, (k, current) -> generation.get() == startGeneration ? value : current);
+        return value;
+    }
+
+    @EventListener
+    public void onConversationChanged(ConversationChangedEvent event) {
+        invalidate(event.getScopes());
+    }
+
+    public void invalidate(Set<Scope> scopes) {
+        // Bumped before removing, so loads that overlap the removal are not stored
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> scopes.stream().anyMatch(scope ->
+                Objects.equals(scope.ownerId(), key.ownerId())
+                        && (key.category() == null || Objects.equals(scope.category(), key.category()))));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private static int rows(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (value instanceof Page<?> page) {
+            return page.getNumberOfElements();
+        }
+        return 1;
+    }
+}
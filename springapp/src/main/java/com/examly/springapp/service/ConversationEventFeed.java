@@ -0,0 +1,296 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ConversationChangedEvent;
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.payload.ConversationFeedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans conversation changes out to Server-Sent Events subscribers. Subscribers only
+ * receive changes to their own owner's conversations; a change spanning several owners
+ * (a retention purge) becomes one event per owner.
+ *
+ * Each change is serialized once per owner and appended to a history of recent events,
+ * then offered to every subscriber's bounded queue. Queues are drained on the feed's own
+ * bounded pool, so a slow client never blocks the writer nor the application task
+ * executor. A subscriber whose queue overflows has its backlog discarded and receives a
+ * single "reset" event telling it to refetch. On reconnect, clients send Last-Event-ID
+ * and get the events they missed from the history, or a "reset" if those have been
+ * evicted or the node has restarted since. The history is bounded both by event count
+ * and by the size of the serialized events, since one bulk insert can carry hundreds of
+ * full conversations.
+ */
+@Component
+public class ConversationEventFeed {
+
+    public static final String RESET = "reset";
+
+    private static final Object HEARTBEAT = new Object();
+
+    private record Entry(long sequence, Long ownerId, String name, String json) {
+        // Approximate: one byte per character, as for the Latin-1 strings most JSON is
+        long size() {
+            return json.length();
+        }
+    }
+
+    private final class Subscriber {
+        final Long ownerId;
+        final SseEmitter emitter;
+        final BlockingQueue<Object> queue;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean overflowed;
+
+        Subscriber(Long ownerId, SseEmitter emitter) {
+            this.ownerId = ownerId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final int historySize;
+    private final long historyMaxBytes;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Counter dropped;
+
+    // Ids are "<epoch>:<sequence>"; a new epoch per start tells clients their id is from another run
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Guarded by this; oldest first
+    private final ArrayDeque<Entry> history = new ArrayDeque<>();
+    private long historyBytes;
+    private long lastSequence;
+
+    public ConversationEventFeed(ObjectMapper objectMapper,
+            @Value("${app.conversations.feed.history:1000}") int historySize,
+            @Value("${app.conversations.feed.history-max-size:16MB}") DataSize historyMaxSize,
+            @Value("${app.conversations.feed.buffer-size:256}") int bufferSize,
+            @Value("${app.conversations.feed.max-subscribers:10000}") int maxSubscribers,
+            @Value("${app.conversations.feed.timeout:30m}") Duration timeout,
+            @Value("${app.conversations.feed.threads:4}") int threads,
+            MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        // A subscriber has at most one drain queued, so the queue never holds more than maxSubscribers
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxSubscribers), new CustomizableThreadFactory("conversation-feed-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.historySize = historySize;
+        this.historyMaxBytes = historyMaxSize.toBytes();
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.dropped = Counter.builder("conversations.feed.dropped")
+                .description("Subscribers reset because their buffer overflowed")
+                .register(meterRegistry);
+        meterRegistry.gauge("conversations.feed.subscribers", subscribers, Set::size);
+    }
+
+    /** Subscribe to changes of the owner's conversations (the unowned ones when null). */
+    public SseEmitter subscribe(Long ownerId, String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many event subscribers");
+        }
+        Subscriber subscriber = new Subscriber(ownerId, new SseEmitter(timeout.toMillis()));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        synchronized (this) {
+            // Replay and registration happen under the lock so no event falls in between
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(subscriber, lastEventId.trim());
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    @EventListener
+    public void onConversationChanged(ConversationChangedEvent event) {
+        if (event.getType() == ConversationChangedEvent.Type.ARCHIVED) {
+            return; // nothing a client displays has changed
+        }
+        Map<Long, List<Conversation>> byOwner = new LinkedHashMap<>();
+        for (Conversation conversation : event.getConversations()) {
+            byOwner.computeIfAbsent(conversation.getOwnerId(), owner -> new ArrayList<>()).add(conversation);
+        }
+        byOwner.forEach((ownerId, conversations) -> publish(event.getType(), ownerId, conversations));
+    }
+
+    private void publish(ConversationChangedEvent.Type type, Long ownerId, List<Conversation> conversations) {
+        ConversationFeedEvent payload = new ConversationFeedEvent();
+        payload.setType(type.name());
+        payload.setIds(conversations.stream().map(Conversation::getId).toList());
+        if (type != ConversationChangedEvent.Type.DELETED) {
+            payload.setConversations(conversations);
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        // Appending and fanning out under one lock keeps every subscriber's stream in id order
+        synchronized (this) {
+            Entry entry = new Entry(++lastSequence, ownerId, payload.getType().toLowerCase(), json);
+            remember(entry);
+            for (Subscriber subscriber : subscribers) {
+                if (Objects.equals(subscriber.ownerId, ownerId)) {
+                    enqueue(subscriber, entry);
+                }
+            }
+        }
+    }
+
+    /** Keeps idle connections open through proxies and notices clients that have gone away. */
+    @Scheduled(fixedDelayString = "${app.conversations.feed.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offer(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void remember(Entry entry) {
+        history.addLast(entry);
+        historyBytes += entry.size();
+        // An event larger than the whole budget is not kept; resuming past it means a reset
+        while (!history.isEmpty() && (history.size() > historySize || historyBytes > historyMaxBytes)) {
+            historyBytes -= history.removeFirst().size();
+        }
+    }
+
+    // Caller holds the lock
+    private void replay(Subscriber subscriber, String lastEventId) {
+        long after = parseSequence(lastEventId);
+        long oldest = history.isEmpty() ? lastSequence + 1 : history.peekFirst().sequence();
+        if (after < 0 || after > lastSequence || after + 1 < oldest) {
+            enqueue(subscriber, resetEntry());
+            return;
+        }
+        for (Entry entry : history) {
+            if (entry.sequence() > after && Objects.equals(entry.ownerId(), subscriber.ownerId)) {
+                enqueue(subscriber, entry);
+            }
+        }
+    }
+
+    private long parseSequence(String lastEventId) {
+        int separator = lastEventId.indexOf(':');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Entry entry) {
+        if (!subscriber.queue.offer(entry) && !subscriber.overflowed) {
+            subscriber.overflowed = true;
+            dropped.increment();
+        }
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Shutting down (or briefly over the subscriber cap); the client reconnects and resumes
+                subscribers.remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                if (subscriber.overflowed) {
+                    // Coalesce the backlog into one reset; the client refetches instead of catching up
+                    subscriber.overflowed = false;
+                    subscriber.queue.clear();
+                    send(subscriber, resetEntry());
+                }
+                Object next = subscriber.queue.poll();
+                if (next == null) {
+                    break;
+                }
+                if (next == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    send(subscriber, (Entry) next);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (!subscriber.queue.isEmpty() || subscriber.overflowed) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, Entry entry) throws IOException {
+        subscriber.emitter.send(SseEmitter.event()
+                .id(epoch + ":" + entry.sequence())
+                .name(entry.name())
+                .data(entry.json(), MediaType.APPLICATION_JSON));
+    }
+
+    private synchronized Entry resetEntry() {
+        return new Entry(lastSequence, null, RESET, "{}");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
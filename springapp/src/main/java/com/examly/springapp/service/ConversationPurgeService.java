@@ -0,0 +1,188 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ConversationChangedEvent;
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.payload.PurgeResponse;
+import com.examly.springapp.repository.ConversationArchiveStore;
+import com.examly.springapp.repository.OwnerCondition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Set-based deletes of conversations by category and/or age, for DELETE /api/chats and
+ * the retention job.
+ *
+ * Rows are removed in chunks of chunk-size, oldest first through the created_at
+ * indexes, each chunk in its own short transaction (response bodies go with them
+ * through the cascading foreign key). That bounds how long row locks are held and
+ * how big each replicated transaction is, and the optional pause between chunks lets
+ * replicas keep up. Every chunk publishes one ConversationChangedEvent. Archived
+ * conversations matching the filters are purged the same way once the hot table is done.
+ * Purges requested through the API are limited to the caller's conversations; the
+ * retention job covers every owner.
+ */
+@Service
+public class ConversationPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationPurgeService.class);
+
+    // Hot rows first; both tables have the same id, owner_id, category and created_at columns
+    private static final List<String> TABLES = List.of("conversation", "conversation_archive");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConversationArchiveStore archiveStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.conversations.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.conversations.purge.pause:0ms}")
+    private Duration pause;
+
+    @Value("${app.conversations.retention.enabled:false}")
+    private boolean retentionEnabled;
+
+    @Value("${app.conversations.retention.max-age:365d}")
+    private Duration retentionMaxAge;
+
+    public ConversationPurgeService(JdbcTemplate jdbcTemplate, ConversationArchiveStore archiveStore,
+            TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveStore = archiveStore;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /** Delete every owner's conversations older than the retention max-age; several nodes may run it at once. */
+    @Scheduled(initialDelayString = "${app.conversations.retention.interval:PT1H}",
+            fixedDelayString = "${app.conversations.retention.interval:PT1H}")
+    public void purgeExpired() {
+        if (!retentionEnabled) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retentionMaxAge);
+        PurgeResponse report = purge(List.of("created_at < ?"), List.of(Timestamp.from(cutoff)), null, cutoff);
+        if (report.getDeleted() > 0) {
+            log.info("Retention purge deleted {} conversations older than {} in {} chunks, {} ms ({} rows/s)",
+                    report.getDeleted(), report.getBefore(), report.getChunks(), report.getElapsedMs(),
+                    Math.round(report.getRowsPerSecond()));
+        }
+    }
+
+    /**
+     * Delete every conversation of one owner matching the filters.
+     *
+     * @param ownerId  the owner whose conversations go, or null for the unowned ones
+     * @param category only this category, or null for all
+     * @param before   only rows created strictly before this instant, or null for any age
+     */
+    public PurgeResponse purge(Long ownerId, String category, Instant before) {
+        if (category == null && before == null) {
+            throw new IllegalArgumentException("A category or a cutoff is required");
+        }
+        List<String> conditions = new ArrayList<>(3);
+        List<Object> filterArgs = new ArrayList<>(3);
+        conditions.add(OwnerCondition.of("owner_id", ownerId, filterArgs));
+        if (category != null) {
+            conditions.add("category = ?");
+            filterArgs.add(category);
+        }
+        if (before != null) {
+            conditions.add("created_at < ?");
+            filterArgs.add(Timestamp.from(before));
+        }
+        return purge(conditions, filterArgs, category, before);
+    }
+
+    private PurgeResponse purge(List<String> conditions, List<Object> filterArgs, String category, Instant before) {
+        // The same filter goes on the DELETE, so a row changed since it was selected is kept
+        String filter = " where " + String.join(" and ", conditions);
+
+        PurgeResponse report = new PurgeResponse();
+        report.setCategory(category);
+        report.setBefore(before);
+        report.setChunkSize(chunkSize);
+        long started = System.nanoTime();
+        for (String table : TABLES) {
+            if (!purgeTable(table, filter, filterArgs, report)) {
+                break;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        report.setElapsedMs(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getDeleted() * 1_000_000_000d / elapsedNanos);
+        return report;
+    }
+
+    // Returns false when interrupted
+    private boolean purgeTable(String table, String filter, List<Object> filterArgs, PurgeResponse report) {
+        boolean archive = !table.equals("conversation");
+        if (archive && archiveStore.isEmpty()) {
+            return true;
+        }
+        String select = "select id, owner_id, category, created_at from " + table + filter
+                + " order by created_at, id limit " + chunkSize;
+        String delete = "delete from " + table + filter + " and id in ";
+        while (true) {
+            Chunk chunk = transactionTemplate.execute(status -> deleteChunk(select, delete, filterArgs));
+            if (chunk == null || chunk.rows().isEmpty()) {
+                return true;
+            }
+            if (archive) {
+                archiveStore.changed();
+            }
+            eventPublisher.publishEvent(ConversationChangedEvent.purged(chunk.rows()));
+            report.setDeleted(report.getDeleted() + chunk.deleted());
+            report.setChunks(report.getChunks() + 1);
+            if (chunk.rows().size() < chunkSize) {
+                return true;
+            }
+            if (!pause.isZero()) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    // The selected rows (id, owner, category, timestamp) and how many of them the DELETE removed
+    private record Chunk(List<Conversation> rows, int deleted) {
+    }
+
+    private Chunk deleteChunk(String select, String delete, List<Object> filterArgs) {
+        List<Conversation> rows = jdbcTemplate.query(select, (rs, rowNum) -> {
+            Conversation row = new Conversation();
+            row.setId(rs.getLong(1));
+            row.setOwnerId(rs.getObject(2, Long.class));
+            row.setCategory(rs.getString(3));
+            Timestamp createdAt = rs.getTimestamp(4);
+            row.setTimestamp(createdAt == null ? null : createdAt.toInstant());
+            return row;
+        }, filterArgs.toArray());
+        if (rows.isEmpty()) {
+            return new Chunk(rows, 0);
+        }
+        List<Object> args = new ArrayList<>(filterArgs);
+        rows.forEach(row -> args.add(row.getId()));
+        int deleted = jdbcTemplate.update(delete + "("
+                + String.join(", ", Collections.nCopies(rows.size(), "?")) + ")", args.toArray());
+        return new Chunk(rows, deleted);
+    }
+}
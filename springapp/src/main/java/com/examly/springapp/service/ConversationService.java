@@ -1,54 +1,435 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.event.ConversationChangedEvent;
 import com.examly.springapp.model.Conversation;
+import com.examly.springapp.payload.CategoryStats;
+import com.examly.springapp.payload.ConversationCursor;
+import com.examly.springapp.payload.ConversationSearchResponse;
+import com.examly.springapp.repository.ConversationArchiveStore;
+import com.examly.springapp.repository.ConversationBodyStore;
 import com.examly.springapp.repository.ConversationRepository;
+import com.examly.springapp.search.ConversationSearchIndex;
+import com.examly.springapp.search.ConversationSearchIndex.SearchHits;
+import com.examly.springapp.service.ConversationCache.Key;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Every operation is scoped to one owner, the user named by the caller's JWT subject
+ * (null for the unowned conversations, see Conversation.ownerId): other owners' rows
+ * are neither listed nor readable nor writable, and appear as not found.
+ *
+ * Reads go to the hot conversation table first and fall through to
+ * conversation_archive (see ConversationArchiver) only when the hot rows don't fill the
+ * result, so recent traffic never touches the archive; archived rows come after hot
+ * ones in every listing.
+ */
 @Service
 public class ConversationService {
     
+    // Newest first, ties broken by id, as in the keyset queries
+    private static final Comparator<Conversation> NEWEST_FIRST = Comparator
+            .comparing(Conversation::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Conversation::getId, Comparator.reverseOrder());
+    
     @Autowired
     private ConversationRepository repository;
     
-    public Conversation addConversation(Conversation conversation) {
-        return repository.save(conversation);
+    @Autowired
+    private ConversationBodyStore bodyStore;
+    
+    @Autowired
+    private ConversationArchiveStore archiveStore;
+    
+    @Autowired
+    private ConversationCache cache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ConversationSearchIndex searchIndex;
+    
+    @Autowired
+    private ConversationStatistics statistics;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public Conversation addConversation(Long ownerId, Conversation conversation) {
+        // Always a new row: an id or version in the body would turn the insert into a merge
+        conversation.setId(null);
+        conversation.setVersion(null);
+        conversation.setOwnerId(ownerId);
+        Conversation saved = transactionTemplate.execute(status -> {
+            Conversation row = repository.save(conversation);
+            // Nothing to clear or replace for a row inserted just now: one plain insert
+            bodyStore.insertAll(List.of(row));
+            return row;
+        });
+        eventPublisher.publishEvent(ConversationChangedEvent.created(List.of(saved)));
+        return saved;
+    }
+    
+    public List<Conversation> getAllConversations(Long ownerId) {
+        return withArchive(bodyStore.attach(repository.findByOwnerId(ownerId)),
+                archiveStore.findAll(ownerId, null, 0, Integer.MAX_VALUE));
+    }
+    
+    /**
+     * Visit every conversation without loading the table into memory. Rows are buffered
+     * in chunks of the fetch size so their bodies can be loaded with one query per chunk,
+     * and each entity is detached once the action returns so the persistence context
+     * stays empty. Archived rows follow the hot ones.
+     */
+    @Transactional(readOnly = true)
+    public void forEachConversation(Long ownerId, Consumer<Conversation> action) {
+        List<Conversation> chunk = new ArrayList<>(ConversationRepository.EXPORT_FETCH_SIZE);
+        try (Stream<Conversation> conversations = repository.streamAllOrderedById(ownerId)) {
+            conversations.forEach(conversation -> {
+                chunk.add(conversation);
+                if (chunk.size() == ConversationRepository.EXPORT_FETCH_SIZE) {
+                    visit(chunk, action);
+                }
+            });
+        }
+        visit(chunk, action);
+        archiveStore.forEach(ownerId, action);
     }
     
-    public List<Conversation> getAllConversations() {
-        return repository.findAll();
+    private void visit(List<Conversation> chunk, Consumer<Conversation> action) {
+        bodyStore.attach(chunk);
+        for (Conversation conversation : chunk) {
+            action.accept(conversation);
+            entityManager.detach(conversation);
+        }
+        chunk.clear();
     }
     
-    public List<Conversation> getConversationsByCategory(String category) {
-        return repository.findByCategory(category);
+    public Optional<Conversation> getConversation(Long ownerId, Long id) {
+        return repository.findByIdAndOwnerId(id, ownerId).map(bodyStore::attach)
+                .or(() -> archiveStore.findById(id, ownerId));
     }
     
-    public List<Conversation> getConversationsSortedByTime() {
-        return repository.findAllByOrderByTimestampDesc();
+    public List<Conversation> getConversationsByCategory(Long ownerId, String category) {
+        return cache.get(Key.of(ownerId, "byCategory", category),
+                () -> withArchive(bodyStore.attach(repository.findByOwnerIdAndCategory(ownerId, category)),
+                        archiveStore.findAll(ownerId, category, 0, Integer.MAX_VALUE)));
     }
     
-    public void deleteConversation(Long id) {
-        repository.deleteById(id);
+    public List<Conversation> getConversationsSortedByTime(Long ownerId) {
+        return cache.get(Key.of(ownerId, "sortedByTime", null),
+                () -> withArchive(bodyStore.attach(repository.findByOwnerIdOrderByTimestampDesc(ownerId)),
+                        archiveStore.findNewest(ownerId, null, null, null, 0, Integer.MAX_VALUE)));
     }
     
-    public Conversation updateConversation(Long id, Conversation conversation) {
+    public void deleteConversation(Long ownerId, Long id) {
+        Optional<Conversation> hot = repository.findByIdAndOwnerId(id, ownerId)
+                .map(bodyStore::attach); // listeners need the response length
+        Conversation existing;
+        if (hot.isPresent()) {
+            existing = hot.get();
+            // The body goes with it: conversation_body has ON DELETE CASCADE
+            repository.delete(existing);
+        } else {
+            existing = archiveStore.findById(id, ownerId)
+                    .filter(archived -> archiveStore.deleteById(id, ownerId))
+                    .orElseThrow(() -> notFound(id));
+        }
+        eventPublisher.publishEvent(ConversationChangedEvent.deleted(List.of(existing)));
+    }
+    
+    public Conversation updateConversation(Long ownerId, Long id, Conversation conversation) {
+        // Snapshot before save: merge copies the new state onto the managed instance
+        Conversation existing = repository.findByIdAndOwnerId(id, ownerId).map(bodyStore::attach).orElse(null);
+        if (existing == null) {
+            if (archiveStore.findById(id, ownerId).isPresent()) {
+                throw archived(id);
+            }
+            if (repository.existsById(id)) {
+                // Another owner's row: saving would overwrite it
+                throw notFound(id);
+            }
+        }
+        Conversation previous = existing == null ? null : snapshot(existing);
+        if (existing != null && conversation.getTimestamp() == null) {
+            // Never leave created_at empty: such rows drop out of cursor paging and retention
+            conversation.setTimestamp(existing.getTimestamp());
+        }
+        if (existing != null && conversation.getVersion() == null) {
+            // A PUT without a version overwrites whatever is there, as before
+            conversation.setVersion(existing.getVersion());
+        }
         conversation.setId(id);
-        return repository.save(conversation);
+        conversation.setOwnerId(ownerId);
+        Conversation saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Conversation row = repository.save(conversation);
+                bodyStore.save(row.getId(), conversation.getResponse());
+                // merge doesn't copy transient state onto the managed instance
+                row.setResponse(conversation.getResponse());
+                return row;
+            });
+        } catch (OptimisticLockingFailureException e) {
+            throw conflict(id);
+        }
+        eventPublisher.publishEvent(previous == null
+                ? ConversationChangedEvent.created(List.of(saved))
+                : ConversationChangedEvent.updated(previous, saved));
+        return saved;
+    }
+    
+    /**
+     * Partial update: only the given attributes change, in one UPDATE that also bumps
+     * the version, without reading the row first (the old category is read only when
+     * the category changes, so caches for it can be invalidated). The updated row is
+     * read back for the response.
+     *
+     * @param changes         new values of prompt, category, timestamp and/or response
+     * @param expectedVersion fail with 409 unless the row still has this version; null for any
+     */
+    public Conversation patchConversation(Long ownerId, Long id, Map<String, Object> changes,
+            Long expectedVersion) {
+        Map<String, Object> columns = new LinkedHashMap<>(changes);
+        boolean withResponse = columns.containsKey("response");
+        String response = (String) columns.remove("response");
+        List<String> previousCategory = columns.containsKey("category")
+                ? repository.findCategoryById(id, ownerId)
+                : null;
+        
+        Conversation patched = transactionTemplate.execute(status -> {
+            if (repository.updateFields(id, ownerId, expectedVersion, columns) == 0) {
+                return null;
+            }
+            if (withResponse) {
+                bodyStore.save(id, response);
+            }
+            return repository.findByIdAndOwnerId(id, ownerId).map(bodyStore::attach).orElse(null);
+        });
+        if (patched == null) {
+            if (expectedVersion != null && repository.existsByIdAndOwnerId(id, ownerId)) {
+                throw conflict(id);
+            }
+            if (archiveStore.findById(id, ownerId).isPresent()) {
+                throw archived(id);
+            }
+            throw notFound(id);
+        }
+        String oldCategory = previousCategory == null || previousCategory.isEmpty()
+                ? patched.getCategory()
+                : previousCategory.get(0);
+        eventPublisher.publishEvent(ConversationChangedEvent.patched(oldCategory, patched));
+        return patched;
     }
     
     // Pagination methods
-    public Page<Conversation> getConversations(Pageable pageable) {
-        return repository.findAll(pageable);
+    public Page<Conversation> getConversations(Long ownerId, Pageable pageable) {
+        return cache.get(new Key(ownerId, "conversations", null, pageable.getPageNumber(), pageable.getPageSize()),
+                () -> withArchive(attach(repository.findByOwnerId(ownerId, pageable)), ownerId, null, false,
+                        pageable, row -> row));
+    }
+    
+    public Page<Conversation> getConversationsByCategory(Long ownerId, String category, Pageable pageable) {
+        return cache.get(new Key(ownerId, "byCategory", category, pageable.getPageNumber(), pageable.getPageSize()),
+                () -> withArchive(attach(repository.findByOwnerIdAndCategory(ownerId, category, pageable)), ownerId,
+                        category, false, pageable, row -> row));
+    }
+    
+    public Page<Conversation> getConversationsSortedByTime(Long ownerId, Pageable pageable) {
+        return cache.get(new Key(ownerId, "sortedByTime", null, pageable.getPageNumber(), pageable.getPageSize()),
+                () -> withArchive(attach(repository.findByOwnerIdOrderByTimestampDesc(ownerId, pageable)), ownerId,
+                        null, true, pageable, row -> row));
+    }
+    
+    // Sparse fieldsets: only the requested columns are selected
+    public Page<Map<String, Object>> getConversationFields(Long ownerId, List<String> fields, String category,
+            boolean sortedByTime, Pageable pageable) {
+        String scope = (sortedByTime ? "sortedByTime" : category == null ? "conversations" : "byCategory")
+                + ":fields=" + String.join(",", fields);
+        return cache.get(new Key(ownerId, scope, category, pageable.getPageNumber(), pageable.getPageSize()),
+                () -> withArchive(repository.findFields(fields, ownerId, category, sortedByTime, pageable), ownerId,
+                        category, sortedByTime, pageable, row -> fields(row, fields)));
+    }
+    
+    // Keyset pagination: a null cursor starts from the newest conversation
+    public Slice<Conversation> getConversationsAfter(Long ownerId, ConversationCursor cursor, int size) {
+        Pageable limit = PageRequest.of(0, size);
+        Slice<Conversation> hot = cursor == null
+                ? repository.findFirstSlice(ownerId, limit)
+                : repository.findSliceBefore(ownerId, cursor.getTimestamp(), cursor.getId(), limit);
+        return withArchive(attach(hot), ownerId, null, cursor, size);
+    }
+    
+    public Slice<Conversation> getConversationsByCategoryAfter(Long ownerId, String category,
+            ConversationCursor cursor, int size) {
+        Pageable limit = PageRequest.of(0, size);
+        Slice<Conversation> hot = cursor == null
+                ? repository.findFirstSliceByCategory(ownerId, category, limit)
+                : repository.findSliceByCategoryBefore(ownerId, category, cursor.getTimestamp(), cursor.getId(),
+                        limit);
+        return withArchive(attach(hot), ownerId, category, cursor, size);
+    }
+    
+    public List<CategoryStats> getCategoryStats(Long ownerId) {
+        return statistics.getStats(ownerId);
+    }
+    
+    // Full-text search: the index ranks ids, the rows are then loaded in one query
+    public ConversationSearchResponse searchConversations(Long ownerId, String query, int page, int size) {
+        long start = System.nanoTime();
+        SearchHits result = searchIndex.search(ownerId, query, page, size);
+        List<Long> ids = result.hits().stream().map(ConversationSearchIndex.Hit::id).toList();
+        Map<Long, Conversation> byId = bodyStore.attach(repository.findByIdInAndOwnerId(ids, ownerId))
+                .stream()
+                .collect(Collectors.toMap(Conversation::getId, Function.identity(), (a, b) -> a, HashMap::new));
+        if (byId.size() < ids.size()) {
+            archiveStore.findAllById(ids.stream().filter(id -> !byId.containsKey(id)).toList(), ownerId)
+                    .forEach(archived -> byId.put(archived.getId(), archived));
+        }
+        
+        ConversationSearchResponse response = new ConversationSearchResponse();
+        response.setQuery(query);
+        response.setPage(page);
+        response.setSize(size);
+        response.setTotalHits(result.total());
+        response.setTotalHitsExact(result.totalExact());
+        for (ConversationSearchIndex.Hit hit : result.hits()) {
+            Conversation conversation = byId.get(hit.id());
+            if (conversation != null) { // deleted since it was indexed
+                response.getHits().add(new ConversationSearchResponse.Hit(hit.score(), conversation));
+            }
+        }
+        response.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+        return response;
+    }
+    
+    // Response bodies for one page or slice, in one query
+    private <S extends Slice<Conversation>> S attach(S slice) {
+        bodyStore.attach(slice.getContent());
+        return slice;
+    }
+    
+    private static List<Conversation> withArchive(List<Conversation> hot, List<Conversation> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<Conversation> all = new ArrayList<>(hot.size() + archived.size());
+        all.addAll(hot);
+        all.addAll(archived);
+        return all;
+    }
+    
+    // Archived rows are numbered after the hot ones: a page past the hot rows is read
+    // from the archive, and a short hot page is topped up from its start
+    private <T> Page<T> withArchive(Page<T> hot, Long ownerId, String category, boolean newestFirst,
+            Pageable pageable, Function<Conversation, T> mapper) {
+        if (archiveStore.isEmpty()) {
+            return hot;
+        }
+        long total = hot.getTotalElements() + archiveStore.count(ownerId, category);
+        int missing = pageable.getPageSize() - hot.getNumberOfElements();
+        if (missing <= 0) {
+            return new PageImpl<>(hot.getContent(), pageable, total);
+        }
+        long offset = Math.max(0, pageable.getOffset() - hot.getTotalElements());
+        List<Conversation> archived = newestFirst
+                ? archiveStore.findNewest(ownerId, category, null, null, offset, missing)
+                : archiveStore.findAll(ownerId, category, offset, missing);
+        List<T> content = new ArrayList<>(hot.getContent());
+        archived.forEach(row -> content.add(mapper.apply(row)));
+        return new PageImpl<>(content, pageable, total);
+    }
+    
+    // Newest-first slices merge in archived rows past the same cursor, unless every one of
+    // them is older than a full hot slice
+    private Slice<Conversation> withArchive(Slice<Conversation> hot, Long ownerId, String category,
+            ConversationCursor cursor, int size) {
+        List<Conversation> content = hot.getContent();
+        Instant oldest = content.isEmpty() ? null : content.get(content.size() - 1).getTimestamp();
+        if (hot.hasNext() && !archiveStore.overlaps(oldest)) {
+            return hot;
+        }
+        List<Conversation> archived = cursor == null
+                ? archiveStore.findNewest(ownerId, category, null, null, 0, size + 1)
+                : archiveStore.findNewest(ownerId, category, cursor.getTimestamp(), cursor.getId(), 0, size + 1);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<Conversation> merged = new ArrayList<>(content.size() + archived.size());
+        merged.addAll(content);
+        merged.addAll(archived);
+        merged.sort(NEWEST_FIRST);
+        boolean hasNext = hot.hasNext() || merged.size() > size;
+        return new SliceImpl<>(merged.subList(0, Math.min(size, merged.size())), hot.getPageable(), hasNext);
+    }
+    
+    private static Map<String, Object> fields(Conversation conversation, List<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, switch (field) {
+                case "id" -> conversation.getId();
+                case "prompt" -> conversation.getPrompt();
+                case "response" -> conversation.getResponse();
+                case "category" -> conversation.getCategory();
+                case "timestamp" -> conversation.getTimestamp();
+                default -> throw new IllegalArgumentException("Unknown field: " + field);
+            });
+        }
+        return values;
+    }
+    
+    private static ResponseStatusException archived(Long id) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Conversation " + id + " is archived and can no longer be modified");
+    }
+    
+    private static ResponseStatusException notFound(Long id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation " + id + " not found");
     }
     
-    public Page<Conversation> getConversationsByCategory(String category, Pageable pageable) {
-        return repository.findByCategory(category, pageable);
+    private static ResponseStatusException conflict(Long id) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Conversation " + id + " was modified by another request; reload it and retry");
     }
     
-    public Page<Conversation> getConversationsSortedByTime(Pageable pageable) {
-        return repository.findAllByOrderByTimestampDesc(pageable);
+    private static Conversation snapshot(Conversation source) {
+        Conversation copy = new Conversation();
+        copy.setId(source.getId());
+        copy.setOwnerId(source.getOwnerId());
+        copy.setPrompt(source.getPrompt());
+        copy.setResponse(source.getResponse());
+        copy.setCategory(source.getCategory());
+        copy.setTimestamp(source.getTimestamp());
+        return copy;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,301 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ConversationChangedEvent;
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.payload.CategoryStats;
+import com.examly.springapp.repository.OwnerCondition;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-category counters (rows, prompt and response length sums, newest timestamp) for
+ * each owner, kept in memory so GET /api/chats/stats is O(categories) instead of O(rows).
+ *
+ * An owner's counters are loaded with one GROUP BY over their rows (the owner_id
+ * indexes) on their first stats read and then adjusted from ConversationChangedEvent.
+ * Changes that can't be applied as a delta (removing the newest row of a category,
+ * partial events from patches and purges, or any change that lands while a reload is
+ * running) mark the category stale, and stale categories are recounted from the
+ * database on the next read. Owners are kept in a bounded cache and dropped after the
+ * resync interval, so the next read reloads them and picks up writes made by other nodes.
+ */
+@Component
+public class ConversationStatistics {
+
+    // Response lengths come from conversation_body.response_length, so bodies are never read.
+    // Archived rows count too; the filters go into both branches so each can use its index
+    private static final String ROWS = "select c.category, c.prompt, coalesce(b.response_length, 0) as response_length,"
+            + " c.created_at from conversation c left join conversation_body b on b.conversation_id = c.id"
+            + " where %1$s"
+            + " union all select category, prompt, response_length, created_at from conversation_archive where %2$s";
+    private static final String SELECT = "select category, count(*), sum(char_length(prompt)),"
+            + " sum(response_length), max(created_at) from (" + ROWS + ") r group by category";
+
+    // ConcurrentHashMap has no null keys; conversations without a category are kept under this one
+    private static final String UNCATEGORIZED = "\0";
+    // Nor does the owner cache; unowned conversations are kept under this one (user ids start at 1)
+    private static final long UNOWNED = 0;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, OwnerStatistics> owners;
+
+    public ConversationStatistics(JdbcTemplate jdbcTemplate,
+            @Value("${app.conversations.stats.max-owners:10000}") long maxOwners,
+            @Value("${app.conversations.stats.resync-interval:PT10M}") Duration resyncInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(maxOwners)
+                .expireAfterWrite(resyncInterval)
+                .build();
+    }
+
+    /** Category statistics over the owner's conversations, or the unowned ones when null. */
+    public List<CategoryStats> getStats(Long ownerId) {
+        return owners.get(ownerKey(ownerId), key -> new OwnerStatistics(ownerId)).getStats();
+    }
+
+    /** Forget every owner's counters, after rows were written without change events. */
+    public void invalidateAll() {
+        owners.invalidateAll();
+    }
+
+    @EventListener
+    public void onConversationChanged(ConversationChangedEvent event) {
+        if (event.getType() == ConversationChangedEvent.Type.ARCHIVED) {
+            return; // the counts already include the archive
+        }
+        // Owners that aren't loaded have nothing to adjust; their first read counts afresh
+        event.getScopes().stream()
+                .map(scope -> ownerKey(scope.ownerId()))
+                .distinct()
+                .map(owners::getIfPresent)
+                .filter(Objects::nonNull)
+                .forEach(statistics -> statistics.onConversationChanged(event));
+    }
+
+    private static long ownerKey(Long ownerId) {
+        return ownerId == null ? UNOWNED : ownerId;
+    }
+
+    private static String key(String category) {
+        return category == null ? UNCATEGORIZED : category;
+    }
+
+    private static long length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /** One owner's counters; what the whole class used to be before conversations had owners. */
+    private final class OwnerStatistics {
+
+        private final Long ownerId;
+        private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+        private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+        // Event handlers share the read lock; a reload takes the write lock only to flip
+        // reloading and to swap in fresh counters, never across its query
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private int reloading;
+        private volatile boolean loaded;
+
+        OwnerStatistics(Long ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        List<CategoryStats> getStats() {
+            if (!loaded) {
+                reload(null);
+                loaded = true;
+            }
+            if (!stale.isEmpty()) {
+                Set<String> recount = new HashSet<>(stale);
+                stale.removeAll(recount);
+                reload(recount);
+            }
+            List<CategoryStats> stats = new ArrayList<>(counters.size());
+            counters.forEach((key, value) -> {
+                long count = value.count.sum();
+                if (count > 0) {
+                    stats.add(value.toStats(UNCATEGORIZED.equals(key) ? null : key, count));
+                }
+            });
+            stats.sort(Comparator.comparing(CategoryStats::getCategory,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+            return stats;
+        }
+
+        void onConversationChanged(ConversationChangedEvent event) {
+            lock.readLock().lock();
+            try {
+                if (reloading > 0 || event.isPartial()) {
+                    event.getScopes().stream()
+                            .filter(scope -> Objects.equals(scope.ownerId(), ownerId))
+                            .forEach(scope -> stale.add(key(scope.category())));
+                    return;
+                }
+                switch (event.getType()) {
+                    case CREATED -> owned(event.getConversations()).forEach(this::add);
+                    case DELETED -> owned(event.getConversations()).forEach(this::remove);
+                    case UPDATED -> {
+                        owned(event.getPrevious()).forEach(this::remove);
+                        owned(event.getConversations()).forEach(this::add);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private List<Conversation> owned(List<Conversation> conversations) {
+            return conversations.stream().filter(c -> Objects.equals(c.getOwnerId(), ownerId)).toList();
+        }
+
+        private void add(Conversation conversation) {
+            Counters c = counters.computeIfAbsent(key(conversation.getCategory()), k -> new Counters());
+            c.count.increment();
+            c.promptLength.add(length(conversation.getPrompt()));
+            c.responseLength.add(length(conversation.getResponse()));
+            Instant timestamp = conversation.getTimestamp();
+            if (timestamp != null) {
+                c.newest.accumulateAndGet(timestamp, (a, b) -> a == null || b.isAfter(a) ? b : a);
+            }
+        }
+
+        private void remove(Conversation conversation) {
+            String key = key(conversation.getCategory());
+            Counters c = counters.get(key);
+            Instant timestamp = conversation.getTimestamp();
+            Instant newest = c == null ? null : c.newest.get();
+            if (c == null || newest == null || timestamp == null || !timestamp.isBefore(newest)) {
+                // Can't tell what the new maximum is without asking the database
+                stale.add(key);
+                return;
+            }
+            c.count.decrement();
+            c.promptLength.add(-length(conversation.getPrompt()));
+            c.responseLength.add(-length(conversation.getResponse()));
+        }
+
+        /** Recount the given categories, or every category when null. */
+        private void reload(Set<String> keys) {
+            lock.writeLock().lock();
+            try {
+                reloading++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Map<String, Counters> fresh = null;
+            try {
+                fresh = query(keys);
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (fresh == null) {
+                        // Query failed: keep what we have and try these categories again next read
+                        if (keys != null) {
+                            stale.addAll(keys);
+                        }
+                    } else {
+                        if (keys == null) {
+                            counters.keySet().retainAll(fresh.keySet());
+                        } else {
+                            for (String key : keys) {
+                                if (!fresh.containsKey(key)) {
+                                    counters.remove(key); // no rows left
+                                }
+                            }
+                        }
+                        counters.putAll(fresh);
+                    }
+                    reloading--;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+
+        private Map<String, Counters> query(Set<String> keys) {
+            Map<String, Counters> fresh = new HashMap<>();
+            if (keys == null) {
+                select(null, fresh);
+                return fresh;
+            }
+            for (String key : keys) {
+                select(key, fresh);
+            }
+            return fresh;
+        }
+
+        // One category (by key), or every category when key is null
+        private void select(String key, Map<String, Counters> fresh) {
+            List<Object> args = new ArrayList<>(4);
+            String hot = filter("c.owner_id", "c.category", key, args);
+            String archived = filter("owner_id", "category", key, args);
+            jdbcTemplate.query(SELECT.formatted(hot, archived), rs -> {
+                fresh.put(key(rs.getString(1)), Counters.from(rs));
+            }, args.toArray());
+        }
+
+        private String filter(String ownerColumn, String categoryColumn, String key, List<Object> args) {
+            String owner = OwnerCondition.of(ownerColumn, ownerId, args);
+            if (key == null) {
+                return owner;
+            }
+            if (UNCATEGORIZED.equals(key)) {
+                return owner + " and " + categoryColumn + " is null";
+            }
+            args.add(key);
+            return owner + " and " + categoryColumn + " = ?";
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder count = new LongAdder();
+        final LongAdder promptLength = new LongAdder();
+        final LongAdder responseLength = new LongAdder();
+        final AtomicReference<Instant> newest = new AtomicReference<>();
+
+        static Counters from(ResultSet rs) throws SQLException {
+            Counters c = new Counters();
+            c.count.add(rs.getLong(2));
+            c.promptLength.add(rs.getLong(3));
+            c.responseLength.add(rs.getLong(4));
+            Timestamp newest = rs.getTimestamp(5);
+            c.newest.set(newest == null ? null : newest.toInstant());
+            return c;
+        }
+
+        CategoryStats toStats(String category, long count) {
+            CategoryStats stats = new CategoryStats();
+            stats.setCategory(category);
+            stats.setCount(count);
+            stats.setAveragePromptLength((double) promptLength.sum() / count);
+            stats.setAverageResponseLength((double) responseLength.sum() / count);
+            stats.setNewestTimestamp(newest.get());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.TimestampParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Online migration of the legacy varchar conversation.timestamp column into created_at.
+ *
+ * Runs in the background after startup and walks the table by primary key in small
+ * chunks, each in its own short transaction, so the application keeps serving traffic
+ * and no long-held locks are taken. Rows whose legacy value cannot be parsed are left
+ * with a null created_at and reported. Once it logs completion the legacy column can be
+ * dropped by hand (ALTER TABLE conversation DROP COLUMN `timestamp`).
+ */
+@Component
+public class ConversationTimestampBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationTimestampBackfill.class);
+
+    private static final String SELECT_CHUNK = "select id, `timestamp` from conversation"
+            + " where id > ? and created_at is null and `timestamp` is not null order by id limit ?";
+    private static final String UPDATE_ROW = "update conversation set created_at = ? where id = ? and created_at is null";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+
+    @Value("${app.conversations.timestamp-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.conversations.timestamp-backfill.batch-size:1000}")
+    private int batchSize;
+
+    public ConversationTimestampBackfill(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (enabled && hasLegacyColumn()) {
+            taskExecutor.execute(this::backfill);
+        }
+    }
+
+    /** Migrate every remaining legacy row; safe to re-run and to run on several nodes at once. */
+    public void backfill() {
+        long lastId = 0;
+        long migrated = 0;
+        long unparseable = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_CHUNK, lastId, batchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                Instant parsed = TimestampParser.parse(String.valueOf(row.get("timestamp")));
+                if (parsed == null) {
+                    unparseable++;
+                } else {
+                    updates.add(new Object[] { Timestamp.from(parsed), id });
+                }
+                lastId = id;
+            }
+            if (!updates.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_ROW, updates));
+                migrated += updates.size();
+            }
+        }
+        log.info("Conversation timestamp backfill finished: {} rows migrated, {} unparseable", migrated, unparseable);
+    }
+
+    private boolean hasLegacyColumn() {
+        Boolean present = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, "conversation", "timestamp")) {
+                return columns.next();
+            }
+        });
+        return Boolean.TRUE.equals(present);
+    }
+}
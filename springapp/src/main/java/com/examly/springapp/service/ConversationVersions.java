@@ -0,0 +1,67 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.event.ConversationChangedEvent;
+import com.examly.springapp.event.ConversationChangedEvent.Scope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters per owner and query scope, used to build weak ETags without touching
+ * the database. Every write bumps its owner's unscoped counter and the owner's counter
+ * of each category it touched, so an unchanged listing keeps its tag (whatever other
+ * owners write) and a poll can be answered with 304.
+ *
+ * The counters are per node and start over on restart, so tags carry a node epoch.
+ * A tag only changes on a write, so polls of an unchanged listing get 304 however far
+ * apart they are. When several nodes serve the API, set
+ * app.conversations.etag.max-staleness: tags then also carry a time bucket of that
+ * length, so a write made on another node shows up within one bucket. That is the
+ * same bound ConversationCache puts on cross-node staleness.
+ */
+@Component
+public class ConversationVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // 0 leaves the time bucket out of the tag
+    private final long bucketMillis;
+    // Keyed by owner and category; a null category is the owner's unscoped counter
+    private final Map<Scope, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    public ConversationVersions(@Value("${app.conversations.etag.max-staleness:0s}") Duration maxStaleness) {
+        this.bucketMillis = Math.max(0, maxStaleness.toMillis());
+    }
+
+    @EventListener
+    public void onConversationChanged(ConversationChangedEvent event) {
+        Set<Scope> bumped = new HashSet<>();
+        for (Scope scope : event.getScopes()) {
+            bumped.add(new Scope(scope.ownerId(), null));
+            if (scope.category() != null) {
+                bumped.add(scope);
+            }
+        }
+        bumped.forEach(scope -> counters.computeIfAbsent(scope, s -> new AtomicLong()).incrementAndGet());
+    }
+
+    /**
+     * Weak ETag for an owner's listings of one category, or of all their conversations
+     * when category is null.
+     */
+    public String etag(Long ownerId, String category) {
+        // Reads don't create counters, so arbitrary category parameters cost no memory
+        AtomicLong counter = counters.get(new Scope(ownerId, category));
+        long version = counter == null ? 0 : counter.get();
+        String bucket = bucketMillis == 0 ? "" : Long.toString(System.currentTimeMillis() / bucketMillis, 36) + ".";
+        // The owner is part of the tag so one user's tag never validates another's listing
+        String owner = ownerId == null ? "-" : Long.toString(ownerId, 36);
+        return "W/\"" + epoch + "." + bucket + owner + "." + version + "\"";
+    }
+}
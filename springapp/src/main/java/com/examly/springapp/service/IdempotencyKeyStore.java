@@ -0,0 +1,85 @@
+package com.examly.springapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of writes sent with an Idempotency-Key header, so a retried
+ * request gets the original result instead of writing again.
+ *
+ * The first request with a key runs the write; a retry that arrives while it is still
+ * running waits for it, and one that arrives later is answered from the store. A key is
+ * bound to the fingerprint of the request it was first used with: reusing it for a
+ * different request is rejected with 422. Failed writes are forgotten so the client can
+ * retry them. Keys are held per node for the TTL, bounded by max-keys.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    /** The result of a keyed write, and whether it was replayed rather than performed. */
+    public record Outcome<T>(T value, boolean replayed) {
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<Object> result) {
+    }
+
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyKeyStore(@Value("${app.idempotency.max-keys:100000}") long maxKeys,
+            @Value("${app.idempotency.ttl:24h}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+
+    /**
+     * Run the write once per key.
+     *
+     * @param key         the client's key, already scoped to the caller
+     * @param fingerprint identifies the request body; must match on every use of the key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String key, String fingerprint, Supplier<T> write) {
+        while (true) {
+            Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+            Entry existing = entries.asMap().putIfAbsent(key, mine);
+            if (existing == null) {
+                try {
+                    T value = write.get();
+                    mine.result().complete(value);
+                    return new Outcome<>(value, false);
+                } catch (RuntimeException e) {
+                    entries.asMap().remove(key, mine);
+                    mine.result().completeExceptionally(e);
+                    throw e;
+                }
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for a different request");
+            }
+            try {
+                return new Outcome<>((T) existing.result().join(), true);
+            } catch (CompletionException e) {
+                // The first attempt failed and released the key: this one performs the write
+            }
+        }
+    }
+}
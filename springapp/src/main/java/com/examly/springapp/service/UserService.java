@@ -1,34 +1,91 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.exception.DuplicateUserException;
 import com.examly.springapp.model.User;
 import com.examly.springapp.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * User lookups go through a bounded, TTL-based cache keyed by username so repeated
+ * logins (and database-backed authority resolution, see SecurityConfig) don't hit
+ * the users table every time. Every write made through this service evicts the
+ * affected entry; the TTL bounds staleness for changes made on other nodes or
+ * directly in the database. Callers get a copy, never the cached instance.
+ */
 @Service
 public class UserService {
 
-    @Autowired
-    private UserRepository userRepository;
+    private final UserRepository userRepository;
+    private final Cache<String, User> principals;
+    private final AtomicLong generation = new AtomicLong();
+    private final boolean cacheEnabled;
 
-    @Autowired
-    private PasswordEncoder passwordEncoder;
+    public UserService(
+            UserRepository userRepository,
+            @Value("${app.security.user-cache.enabled:true}") boolean cacheEnabled,
+            @Value("${app.security.user-cache.max-size:10000}") long maxSize,
+            @Value("${app.security.user-cache.ttl:5m}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.cacheEnabled = cacheEnabled;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "users");
+    }
 
-    public User createUser(String username, String password, String email, String role) {
+    /**
+     * The password must already be hashed; see PasswordHashingService. Uniqueness is left
+     * to the database: a duplicate username or email surfaces as DuplicateUserException
+     * instead of being checked with separate queries beforehand.
+     */
+    public User createUser(String username, String passwordHash, String email, String role) {
         User user = new User();
         user.setUsername(username);
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(passwordHash);
         user.setEmail(email);
         user.setRole(role);
         user.setEnabled(true);
-        return userRepository.save(user);
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUser(e);
+        }
     }
 
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        if (!cacheEnabled || username == null) {
+            return userRepository.findByUsername(username);
+        }
+        User cached = principals.getIfPresent(username);
+        if (cached == null) {
+            // Misses are not cached, so a user created elsewhere is visible straight away
+            long startGeneration = generation.get();
+            Optional<User> loaded = userRepository.findByUsername(username);
+            if (loaded.isEmpty()) {
+                return loaded;
+            }
+            cached = copyOf(loaded.get());
+            principals.put(username, cached);
+            if (generation.get() != startGeneration) {
+                // A write landed while we were loading; the row may predate it
+                principals.invalidate(username);
+            }
+        }
+        return Optional.of(copyOf(cached));
     }
 
     public boolean existsByUsername(String username) {
@@ -40,6 +97,67 @@ public class UserService {
     }
 
     public User save(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        evict(saved);
+        return saved;
+    }
+
+    /** @return false if there is no such user */
+    public boolean updateRole(String username, String role) {
+        int updated = userRepository.updateRole(username, role);
+        evict(username);
+        return updated > 0;
+    }
+
+    /** @return false if there is no such user */
+    public boolean setEnabled(String username, boolean enabled) {
+        int updated = userRepository.updateEnabled(username, enabled);
+        evict(username);
+        return updated > 0;
+    }
+
+    private static RuntimeException duplicateUser(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException violation)
+                || violation.getConstraintName() == null) {
+            return e; // e.g. a NOT NULL column, not a uniqueness clash; AuthController logs it
+        }
+        // Matches uk_users_email; tables created before the constraints were named keep a
+        // generated name for the username key, so anything else is reported as the username
+        String constraint = violation.getConstraintName().toLowerCase();
+        return constraint.contains("email")
+                ? new DuplicateUserException("Email already exists")
+                : new DuplicateUserException("Username already exists");
+    }
+
+    public void updatePasswordHash(Long userId, String passwordHash) {
+        userRepository.updatePassword(userId, passwordHash);
+        evictById(userId);
+    }
+
+    private void evict(String username) {
+        generation.incrementAndGet();
+        principals.invalidate(username);
+    }
+
+    private void evict(User user) {
+        evict(user.getUsername());
+        // The username itself may have changed
+        evictById(user.getId());
+    }
+
+    private void evictById(Long userId) {
+        generation.incrementAndGet();
+        principals.asMap().values().removeIf(cached -> cached.getId().equals(userId));
+    }
+
+    private static User copyOf(User source) {
+        User copy = new User();
+        copy.setId(source.getId());
+        copy.setUsername(source.getUsername());
+        copy.setPassword(source.getPassword());
+        copy.setEmail(source.getEmail());
+        copy.setRole(source.getRole());
+        copy.setEnabled(source.isEnabled());
+        return copy;
     }
 }
@@ -0,0 +1,70 @@
+package com.examly.springapp;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+@ActiveProfiles("test")
+@SpringBootTest(classes = SpringappApplication.class)
+@AutoConfigureMockMvc
+class AuthApiTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String username;
+
+    @BeforeEach
+    void useFreshUsername() {
+        username = "signup-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    void duplicateSignupsAreBadRequests() throws Exception {
+        signup("{\"username\":\"" + username + "\",\"password\":\"secret\",\"email\":\"" + username + "@example.com\"}")
+                .andExpect(status().isOk());
+
+        signup("{\"username\":\"" + username + "\",\"password\":\"secret\",\"email\":\"" + username + "-2@example.com\"}")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Username already exists"));
+        signup("{\"username\":\"" + username + "-2\",\"password\":\"secret\",\"email\":\"" + username + "@example.com\"}")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Email already exists"));
+    }
+
+    @Test
+    void otherDatabaseErrorsDoNotLeakDetails() throws Exception {
+        signup("{\"username\":\"" + username + "\",\"password\":\"secret\"}")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Signup failed: invalid user details"));
+    }
+
+    @Test
+    void signupWithoutAPasswordIsABadRequest() throws Exception {
+        signup("{\"username\":\"" + username + "\",\"email\":\"" + username + "@example.com\"}")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Signup failed: invalid user details"));
+    }
+
+    private ResultActions signup(String body) throws Exception {
+        var result = mockMvc.perform(post("/api/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
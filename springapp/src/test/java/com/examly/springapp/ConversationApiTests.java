@@ -0,0 +1,207 @@
+package com.examly.springapp;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.examly.springapp.service.ConversationArchiver;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@ActiveProfiles("test")
+@SpringBootTest(classes = SpringappApplication.class)
+@AutoConfigureMockMvc
+class ConversationApiTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ConversationArchiver archiver;
+
+    private String category;
+
+    @BeforeEach
+    void useFreshCategory() {
+        category = "Api-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    void deletedConversationLeavesCachedListings() throws Exception {
+        long id = add("Soon deleted");
+        mockMvc.perform(get("/api/chats/byCategory").param("category", category).with(jwt()))
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/chats/conversationsByCategory").param("category", category).with(jwt()))
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        mockMvc.perform(delete("/api/chats/deleteConversation/" + id).with(jwt()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/chats/byCategory").param("category", category).with(jwt()))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/chats/conversationsByCategory").param("category", category).with(jwt()))
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void unchangedListingIsNotModified() throws Exception {
+        add("Tagged");
+        String etag = mockMvc.perform(get("/api/chats/byCategory").param("category", category).with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/chats/byCategory").param("category", category).with(jwt())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        add("Changes the listing");
+        mockMvc.perform(get("/api/chats/byCategory").param("category", category).with(jwt())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void cursorPagesWalkTheListingOnce() throws Exception {
+        long first = add("First");
+        long second = add("Second");
+        long third = add("Third");
+
+        String page = mockMvc.perform(get("/api/chats/conversationsByCursor").param("category", category)
+                        .param("size", "2").with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(third))
+                .andExpect(jsonPath("$.content[1].id").value(second))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(page).path("nextCursor").asText();
+
+        mockMvc.perform(get("/api/chats/conversationsByCursor").param("category", category)
+                        .param("size", "2").param("cursor", cursor).with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(first))
+                .andExpect(jsonPath("$.hasNext").value(false));
+        mockMvc.perform(get("/api/chats/conversationsByCursor").param("cursor", "not-a-cursor").with(jwt()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void archivingChangesTheListingTag() throws Exception {
+        mockMvc.perform(post("/api/chats/addConversation").with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Old\",\"category\":\"" + category
+                                + "\",\"timestamp\":\"2001-01-01T00:00:00Z\"}"))
+                .andExpect(status().isOk());
+        String etag = mockMvc.perform(get("/api/chats/byCategory").param("category", category).with(jwt()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        archiver.archiveOlderThan(Instant.parse("2002-01-01T00:00:00Z"));
+
+        mockMvc.perform(get("/api/chats/byCategory").param("category", category).with(jwt())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].prompt").value("Old"));
+    }
+
+    @Test
+    void retriedAddsWithAnIdempotencyKeyAreReplayed() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = "{\"prompt\":\"Once\",\"category\":\"" + category + "\"}";
+
+        String first = mockMvc.perform(post("/api/chats/addConversation").with(jwt())
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "false"))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(post("/api/chats/addConversation").with(jwt())
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(objectMapper.readTree(first).path("id").asLong()));
+        mockMvc.perform(post("/api/chats/addConversation").with(jwt())
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Twice\",\"category\":\"" + category + "\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        mockMvc.perform(get("/api/chats/byCategory").param("category", category).with(jwt()))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void patchWithAStaleVersionIsAConflict() throws Exception {
+        String added = mockMvc.perform(post("/api/chats/addConversation").with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Original\",\"response\":\"Answer\",\"category\":\"" + category + "\"}"))
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(added).path("id").asLong();
+        long version = objectMapper.readTree(added).path("version").asLong();
+
+        mockMvc.perform(patch("/api/chats/updateConversation/" + id).with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Edited\",\"version\":" + version + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.prompt").value("Edited"))
+                .andExpect(jsonPath("$.response").value("Answer"));
+        mockMvc.perform(patch("/api/chats/updateConversation/" + id).with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Lost update\",\"version\":" + version + "}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/chats/conversation/" + id).with(jwt()))
+                .andExpect(jsonPath("$.prompt").value("Edited"));
+    }
+
+    @Test
+    void invalidTimestampsAreBadRequests() throws Exception {
+        long id = add("Timestamped");
+
+        mockMvc.perform(delete("/api/chats").param("before", "99999999999999999999").with(jwt()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/chats/updateConversation/" + id).with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"timestamp\":\"99999999999999999999\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/chats/updateConversation/" + id).with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"timestamp\":null}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/chats/updateConversation/" + id).with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Replaced\",\"category\":\"" + category + "\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/chats/conversationsByCursor").param("category", category).with(jwt()))
+                .andExpect(jsonPath("$.content[0].id").value(id));
+    }
+
+    private long add(String prompt) throws Exception {
+        String body = mockMvc.perform(post("/api/chats/addConversation").with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"" + prompt + "\",\"response\":\"Answer\",\"category\":\"" + category + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).path("id").asLong();
+    }
+}
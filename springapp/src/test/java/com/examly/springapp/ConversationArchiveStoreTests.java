@@ -0,0 +1,84 @@
+package com.examly.springapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.repository.ConversationArchiveStore;
+import com.examly.springapp.repository.ConversationRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ActiveProfiles("test")
+@SpringBootTest(classes = SpringappApplication.class)
+@AutoConfigureMockMvc
+class ConversationArchiveStoreTests {
+
+    private static final Instant CUTOFF = Instant.parse("1991-01-01T00:00:00Z");
+
+    @Autowired
+    private ConversationArchiveStore archiveStore;
+
+    @Autowired
+    private ConversationRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentMovesSkipRowsAlreadyMoved() throws Exception {
+        long oldest = save("1990-01-01T00:00:00Z");
+        long next = save("1990-01-02T00:00:00Z");
+        CountDownLatch claimed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The first run holds the oldest row while the second picks a chunk containing it
+            Future<List<Conversation>> first = executor.submit(() -> transactionTemplate.execute(status -> {
+                List<Conversation> rows = archiveStore.moveOlderThan(CUTOFF, 1);
+                claimed.countDown();
+                sleep(200);
+                return rows;
+            }));
+            claimed.await(10, TimeUnit.SECONDS);
+            List<Conversation> second = transactionTemplate.execute(status -> archiveStore.moveOlderThan(CUTOFF, 2));
+
+            assertEquals(List.of(oldest), ids(first.get(10, TimeUnit.SECONDS)));
+            assertEquals(List.of(next), ids(second));
+            assertTrue(repository.findById(oldest).isEmpty());
+            assertTrue(repository.findById(next).isEmpty());
+        } finally {
+            executor.shutdownNow();
+            archiveStore.changed();
+        }
+    }
+
+    private long save(String timestamp) {
+        Conversation conversation = new Conversation();
+        conversation.setPrompt("Archived " + timestamp);
+        conversation.setTimestamp(Instant.parse(timestamp));
+        return repository.saveAndFlush(conversation).getId();
+    }
+
+    private static List<Long> ids(List<Conversation> rows) {
+        return rows.stream().map(Conversation::getId).toList();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.examly.springapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.payload.BulkIngestResponse;
+import com.examly.springapp.repository.ConversationBatchWriter;
+import com.examly.springapp.service.ConversationBulkIngestService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ConversationBulkIngestServiceTests {
+
+    private final List<List<Conversation>> written = new ArrayList<>();
+
+    @Test
+    void failingListenerDoesNotFailACommittedBatch() {
+        ConversationBulkIngestService service = service(new RecordingWriter(), event -> {
+            throw new IllegalStateException("listener failed");
+        });
+
+        BulkIngestResponse report = service.ingest(1L, conversations(3).iterator());
+
+        assertEquals(2, written.size());
+        assertEquals(3, report.getInserted());
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getBatches().stream().allMatch(BulkIngestResponse.BatchResult::isSuccess));
+    }
+
+    @Test
+    void failedBatchReportsAGenericReason() {
+        ConversationBulkIngestService service = service(new RecordingWriter() {
+            @Override
+            public int insertAll(List<Conversation> batch) {
+                throw new DataIntegrityViolationException("insert into conversation ... Data too long for column 'category'");
+            }
+        }, event -> { });
+
+        BulkIngestResponse report = service.ingest(1L, conversations(3).iterator());
+
+        assertEquals(0, report.getInserted());
+        assertEquals(3, report.getFailed());
+        for (BulkIngestResponse.BatchResult batch : report.getBatches()) {
+            assertFalse(batch.isSuccess());
+            assertFalse(batch.getError().contains("insert"), batch.getError());
+        }
+    }
+
+    private ConversationBulkIngestService service(ConversationBatchWriter writer,
+            ApplicationEventPublisher publisher) {
+        ConversationBulkIngestService service = new ConversationBulkIngestService(writer,
+                new TransactionTemplate(new NoOpTransactionManager()), publisher);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        return service;
+    }
+
+    private static List<Conversation> conversations(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Conversation conversation = new Conversation();
+            conversation.setPrompt("Prompt " + i);
+            return conversation;
+        }).toList();
+    }
+
+    private class RecordingWriter extends ConversationBatchWriter {
+        RecordingWriter() {
+            super(null, null);
+        }
+
+        @Override
+        public int insertAll(List<Conversation> batch) {
+            written.add(List.copyOf(batch));
+            return batch.size();
+        }
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
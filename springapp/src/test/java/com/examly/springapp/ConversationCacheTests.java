@@ -0,0 +1,102 @@
+package com.examly.springapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.examly.springapp.event.ConversationChangedEvent.Scope;
+import com.examly.springapp.service.ConversationCache;
+import com.examly.springapp.service.ConversationCache.Key;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ConversationCacheTests {
+
+    private final ConversationCache cache = new ConversationCache(true, 1000, Duration.ofMinutes(5),
+            new SimpleMeterRegistry());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesCachedValueUntilTheScopeChanges() {
+        Key key = Key.of(1L, "byCategory", "General");
+
+        assertEquals(List.of(1), cache.get(key, this::load));
+        assertEquals(List.of(1), cache.get(key, this::load));
+
+        cache.invalidate(Set.of(new Scope(1L, "General")));
+        assertEquals(List.of(2), cache.get(key, this::load));
+    }
+
+    @Test
+    void keepsOtherOwnersAndCategories() {
+        Key otherOwner = Key.of(2L, "byCategory", "General");
+        Key otherCategory = Key.of(1L, "byCategory", "Coding");
+        Key unscoped = Key.of(1L, "sortedByTime", null);
+        cache.get(otherOwner, this::load);
+        cache.get(otherCategory, this::load);
+        cache.get(unscoped, this::load);
+
+        cache.invalidate(Set.of(new Scope(1L, "General")));
+
+        assertEquals(List.of(1), cache.get(otherOwner, this::load));
+        assertEquals(List.of(2), cache.get(otherCategory, this::load));
+        assertEquals(List.of(4), cache.get(unscoped, this::load));
+    }
+
+    @Test
+    void doesNotKeepAValueLoadedAcrossAWrite() {
+        Key key = Key.of(1L, "sortedByTime", null);
+
+        List<Integer> stale = cache.get(key, () -> {
+            List<Integer> value = load();
+            cache.invalidate(Set.of(new Scope(1L, "General")));
+            return value;
+        });
+
+        assertEquals(List.of(1), stale);
+        assertEquals(List.of(2), cache.get(key, this::load));
+    }
+
+    @Test
+    void readersAfterAnInvalidationNeverSeeTheOlderLoad() throws Exception {
+        Key key = Key.of(1L, "sortedByTime", null);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Integer>> slowRead = executor.submit(() -> cache.get(key, () -> {
+                List<Integer> value = load();
+                loading.countDown();
+                await(written);
+                return value;
+            }));
+            await(loading);
+            cache.invalidate(Set.of(new Scope(1L, null)));
+            written.countDown();
+
+            assertEquals(List.of(1), slowRead.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of(2), cache.get(key, this::load));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Integer> load() {
+        return List.of(loads.incrementAndGet());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.examly.springapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.examly.springapp.payload.ConversationCursor;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class ConversationCursorTests {
+
+    @Test
+    void decodesWhatItEncodes() {
+        Instant timestamp = Instant.parse("2025-09-04T12:00:00.123456Z");
+        ConversationCursor decoded = ConversationCursor.decode(new ConversationCursor(timestamp, 42L).encode());
+
+        assertEquals(timestamp, decoded.getTimestamp());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ConversationCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> ConversationCursor.decode(encode("no separator")));
+        assertThrows(IllegalArgumentException.class, () -> ConversationCursor.decode(encode("yesterday|1")));
+        assertThrows(IllegalArgumentException.class, () -> ConversationCursor.decode(encode("2025-09-04T12:00:00Z|x")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
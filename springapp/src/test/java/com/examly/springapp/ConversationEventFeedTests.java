@@ -0,0 +1,120 @@
+package com.examly.springapp;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import com.examly.springapp.event.ConversationChangedEvent;
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.service.ConversationEventFeed;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class ConversationEventFeedTests {
+
+    private static final Pattern FIRST_ID = Pattern.compile("id:(\\w+):1\\b");
+
+    private final ConversationEventFeed feed = new ConversationEventFeed(
+            JsonMapper.builder().findAndAddModules().build(), 100, DataSize.ofKilobytes(4), 16, 10,
+            Duration.ofMinutes(1), 1, new SimpleMeterRegistry());
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new Events(feed)).build();
+
+    @AfterEach
+    void shutdown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void resumesFromLastEventId() throws Exception {
+        MockHttpServletResponse live = subscribe(null);
+        publish("first", 10);
+        publish("second", 10);
+        publish("third", 10);
+        String epoch = epoch(live);
+
+        MockHttpServletResponse resumed = subscribe(epoch + ":1");
+        String content = awaitContent(resumed, c -> c.contains("id:" + epoch + ":3"));
+        assertTrue(content.contains("\"prompt\":\"second\""));
+        assertFalse(content.contains("\"prompt\":\"first\""));
+    }
+
+    @Test
+    void historyIsBoundedBySize() throws Exception {
+        MockHttpServletResponse live = subscribe(null);
+        publish("small", 10);
+        String epoch = epoch(live);
+        // Each of these is over 1KB, so the 4KB history can't hold the first event any more
+        for (int i = 0; i < 5; i++) {
+            publish("large-" + i, 1500);
+        }
+
+        MockHttpServletResponse resumed = subscribe(epoch + ":1");
+        awaitContent(resumed, content -> content.contains("event:" + ConversationEventFeed.RESET));
+        assertFalse(resumed.getContentAsString().contains("large-0"));
+    }
+
+    private MockHttpServletResponse subscribe(String lastEventId) throws Exception {
+        var request = get("/events");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    private void publish(String prompt, int responseLength) {
+        Conversation conversation = new Conversation();
+        conversation.setId((long) prompt.hashCode());
+        conversation.setPrompt(prompt);
+        conversation.setResponse("x".repeat(responseLength));
+        feed.onConversationChanged(ConversationChangedEvent.created(List.of(conversation)));
+    }
+
+    private static String epoch(MockHttpServletResponse live) throws Exception {
+        String content = awaitContent(live, c -> FIRST_ID.matcher(c).find());
+        Matcher matcher = FIRST_ID.matcher(content);
+        assertTrue(matcher.find());
+        return matcher.group(1);
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, Predicate<String> condition)
+            throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String content = response.getContentAsString();
+        while (!condition.test(content) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = response.getContentAsString();
+        }
+        assertTrue(condition.test(content), content);
+        return content;
+    }
+
+    @RestController
+    static class Events {
+        private final ConversationEventFeed feed;
+
+        Events(ConversationEventFeed feed) {
+            this.feed = feed;
+        }
+
+        @GetMapping("/events")
+        SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return feed.subscribe(null, lastEventId);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.examly.springapp;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.repository.ConversationRepository;
+import com.examly.springapp.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+@ActiveProfiles("test")
+@SpringBootTest(classes = SpringappApplication.class)
+@AutoConfigureMockMvc
+class ConversationOwnershipTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ConversationRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String owner;
+    private String other;
+    private String category;
+
+    @BeforeEach
+    void createUsers() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        owner = "owner-" + suffix;
+        other = "other-" + suffix;
+        category = "Owned-" + suffix;
+        userService.createUser(owner, "!", owner + "@example.com", "ROLE_USER");
+        userService.createUser(other, "!", other + "@example.com", "ROLE_USER");
+    }
+
+    @Test
+    void requestsWithoutAKnownUserAreRefused() throws Exception {
+        mockMvc.perform(get("/api/chats/allConversations"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/chats/allConversations").with(as("nobody-" + UUID.randomUUID())))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void conversationsAreOnlyVisibleToTheirOwner() throws Exception {
+        long id = add(owner, "Owned prompt");
+
+        mockMvc.perform(get("/api/chats/conversation/" + id).with(as(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.prompt").value("Owned prompt"));
+        mockMvc.perform(get("/api/chats/conversation/" + id).with(as(other)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/chats/byCategory").param("category", category).with(as(other)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/chats/byCategory").param("category", category).with(as(owner)))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void otherOwnersCannotChangeAConversation() throws Exception {
+        long id = add(owner, "Owned prompt");
+
+        mockMvc.perform(put("/api/chats/updateConversation/" + id).with(as(other))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Taken\",\"category\":\"" + category + "\"}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(patch("/api/chats/updateConversation/" + id).with(as(other))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"Taken\"}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/chats/deleteConversation/" + id).with(as(other)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/chats/conversation/" + id).with(as(owner)))
+                .andExpect(jsonPath("$.prompt").value("Owned prompt"));
+    }
+
+    @Test
+    void addingWithAnIdCreatesANewConversation() throws Exception {
+        long id = add(owner, "Owned prompt");
+
+        String body = mockMvc.perform(post("/api/chats/addConversation").with(as(other))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + id + ",\"prompt\":\"Taken\",\"response\":\"Other answer\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response").value("Other answer"))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/chats/conversation/" + objectMapper.readTree(body).path("id").asLong()).with(as(other)))
+                .andExpect(jsonPath("$.response").value("Other answer"));
+        mockMvc.perform(get("/api/chats/conversation/" + id).with(as(owner)))
+                .andExpect(jsonPath("$.prompt").value("Owned prompt"))
+                .andExpect(jsonPath("$.response").value("Answer"));
+    }
+
+    @Test
+    void deletingAMissingConversationIsNotFound() throws Exception {
+        long id = add(owner, "Short-lived prompt");
+
+        mockMvc.perform(delete("/api/chats/deleteConversation/" + id).with(as(owner)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/chats/deleteConversation/" + id).with(as(owner)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void onlyAdminsReachUnownedConversations() throws Exception {
+        Conversation legacy = new Conversation();
+        legacy.setPrompt("Legacy prompt");
+        legacy.setCategory(category);
+        long id = repository.saveAndFlush(legacy).getId();
+        String admin = "admin-" + UUID.randomUUID().toString().substring(0, 8);
+        userService.createUser(admin, "!", admin + "@example.com", "ROLE_ADMIN");
+
+        mockMvc.perform(get("/api/chats/conversation/" + id).with(as(owner)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/chats/conversation/" + id).with(as(owner))
+                        .header("X-Conversation-Owner", "unowned"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/chats/conversation/" + id).with(as(admin))
+                        .header("X-Conversation-Owner", "unowned"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.prompt").value("Legacy prompt"));
+    }
+
+    private long add(String username, String prompt) throws Exception {
+        String body = mockMvc.perform(post("/api/chats/addConversation").with(as(username))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\":\"" + prompt + "\",\"response\":\"Answer\",\"category\":\"" + category + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).path("id").asLong();
+    }
+
+    private static RequestPostProcessor as(String username) {
+        return jwt().jwt(token -> token.subject(username));
+    }
+}
@@ -0,0 +1,57 @@
+package com.examly.springapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.examly.springapp.event.ConversationChangedEvent;
+import com.examly.springapp.model.Conversation;
+import com.examly.springapp.service.ConversationVersions;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ConversationVersionsTests {
+
+    private final ConversationVersions versions = new ConversationVersions(Duration.ZERO);
+
+    @Test
+    void tagOnlyChangesWhenTheListingIsWritten() throws Exception {
+        String general = versions.etag(1L, "General");
+        String all = versions.etag(1L, null);
+        String coding = versions.etag(1L, "Coding");
+        Thread.sleep(5);
+        assertEquals(general, versions.etag(1L, "General"));
+
+        versions.onConversationChanged(ConversationChangedEvent.created(List.of(conversation(1L, "General"))));
+
+        assertNotEquals(general, versions.etag(1L, "General"));
+        assertNotEquals(all, versions.etag(1L, null));
+        assertEquals(coding, versions.etag(1L, "Coding"));
+    }
+
+    @Test
+    void otherOwnersWritesKeepTheTag() {
+        String tag = versions.etag(1L, "General");
+
+        versions.onConversationChanged(ConversationChangedEvent.created(List.of(conversation(2L, "General"))));
+
+        assertEquals(tag, versions.etag(1L, "General"));
+        assertNotEquals(versions.etag(1L, "General"), versions.etag(2L, "General"));
+    }
+
+    @Test
+    void maxStalenessRollsTheTagOver() throws Exception {
+        ConversationVersions bucketed = new ConversationVersions(Duration.ofMillis(1));
+        String tag = bucketed.etag(1L, null);
+        Thread.sleep(5);
+        assertNotEquals(tag, bucketed.etag(1L, null));
+    }
+
+    private static Conversation conversation(Long ownerId, String category) {
+        Conversation conversation = new Conversation();
+        conversation.setId(1L);
+        conversation.setOwnerId(ownerId);
+        conversation.setCategory(category);
+        return conversation;
+    }
+}
@@ -0,0 +1,54 @@
+package com.examly.springapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.examly.springapp.service.IdempotencyKeyStore;
+import com.examly.springapp.service.IdempotencyKeyStore.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class IdempotencyKeyStoreTests {
+
+    private final IdempotencyKeyStore store = new IdempotencyKeyStore(1000, Duration.ofMinutes(5),
+            new SimpleMeterRegistry());
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Test
+    void retryIsAnsweredFromTheFirstWrite() {
+        Outcome<Integer> first = store.execute("key", "body", writes::incrementAndGet);
+        Outcome<Integer> retry = store.execute("key", "body", writes::incrementAndGet);
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(1, retry.value());
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void reusingAKeyForAnotherRequestIsRejected() {
+        store.execute("key", "body", writes::incrementAndGet);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> store.execute("key", "other body", writes::incrementAndGet));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void failedWritesCanBeRetried() {
+        assertThrows(IllegalStateException.class, () -> store.execute("key", "body", () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        Outcome<Integer> retry = store.execute("key", "body", writes::incrementAndGet);
+        assertFalse(retry.replayed());
+        assertEquals(1, retry.value());
+    }
+}
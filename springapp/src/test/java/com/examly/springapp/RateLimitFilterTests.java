@@ -0,0 +1,82 @@
+package com.examly.springapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.examly.springapp.configuration.RateLimitFilter;
+import com.examly.springapp.configuration.RateLimitFilter.Limit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+class RateLimitFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimitFilter filter = new RateLimitFilter(
+            Map.of("premium", new Limit(5, Duration.ofMinutes(1))),
+            new Limit(3, Duration.ofMinutes(1)),
+            new Limit(2, Duration.ofMinutes(1)),
+            1000, meterRegistry);
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void anonymousCallersAreLimitedPerAddress() throws Exception {
+        assertEquals(200, call("/api/chats", "10.0.0.1").getStatus());
+        assertEquals(200, call("/api/chats", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse throttled = call("/api/chats", "10.0.0.1");
+        assertEquals(429, throttled.getStatus());
+        assertNotNull(throttled.getHeader("Retry-After"));
+        assertTrue(Long.parseLong(throttled.getHeader("Retry-After")) >= 1);
+        assertEquals(1, meterRegistry.counter("http.server.requests.throttled", "tier", "anonymous").count());
+
+        assertEquals(200, call("/api/chats", "10.0.0.2").getStatus());
+        assertEquals(200, call("/actuator/health", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void authenticatedCallersGetTheirMostGenerousRole() throws Exception {
+        authenticate("plain", "ROLE_USER");
+        assertEquals(3, allowed());
+
+        authenticate("paying", "ROLE_USER", "ROLE_PREMIUM");
+        assertEquals(5, allowed());
+    }
+
+    private int allowed() throws Exception {
+        int allowed = 0;
+        // Every call comes from the same address, so only the subject can keep them apart
+        while (call("/api/chats", "10.0.0.1").getStatus() == 200) {
+            allowed++;
+        }
+        return allowed;
+    }
+
+    private MockHttpServletResponse call(String uri, String remoteAddress) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(remoteAddress);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static void authenticate(String subject, String... roles) {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject(subject).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new JwtAuthenticationToken(jwt, AuthorityUtils.createAuthorityList(roles), subject));
+    }
+}
@@ -0,0 +1,32 @@
+package com.examly.springapp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.examly.springapp.model.TimestampParser;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class TimestampParserTests {
+
+    private static final Instant NOON = Instant.parse("2025-09-04T12:00:00Z");
+
+    @Test
+    void parsesHistoricalFormats() {
+        assertEquals(NOON, TimestampParser.parse("2025-09-04T12:00:00Z"));
+        assertEquals(NOON, TimestampParser.parse("2025-09-04T14:00:00+02:00"));
+        assertEquals(NOON, TimestampParser.parse("2025-09-04T12:00:00"));
+        assertEquals(NOON, TimestampParser.parse(" 2025-09-04 12:00:00 "));
+        assertEquals(Instant.parse("2025-09-04T00:00:00Z"), TimestampParser.parse("2025-09-04"));
+        assertEquals(NOON, TimestampParser.parse(Long.toString(NOON.toEpochMilli())));
+    }
+
+    @Test
+    void unrecognisedValuesAreNull() {
+        assertNull(TimestampParser.parse(null));
+        assertNull(TimestampParser.parse("  "));
+        assertNull(TimestampParser.parse("yesterday"));
+        assertNull(TimestampParser.parse("2025-13-40"));
+        assertNull(TimestampParser.parse("99999999999999999999"));
+    }
+}